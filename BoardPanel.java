@@ -0,0 +1,400 @@
+package ram;
+
+import ram.engine.BoardChangeEvent;
+import ram.engine.BoardListener;
+import ram.engine.MancalaModel;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static ram.MancalaView.*;
+import static ram.MenuView.*;
+
+/**
+ * This class holds everything shown in a {@link MancalaView}: the turn label, the Mancala board
+ * with stones and the undo and redo controls. Keeping it apart from the frame lets it be painted
+ * offscreen.
+ *
+ * <p>Changes to the model are gathered and handed to a {@link SowingAnimator} at most once per
+ * {@link #FRAME_MILLIS}, which plays moves back and repaints only the pits they touch.
+ *
+ * <p>Pressing F3 shows the paint times and input latencies measured by {@link GuiStats} over the
+ * board.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+@SuppressWarnings("serial")
+public class BoardPanel extends JPanel implements BoardListener {
+  public static final int FRAME_MILLIS = 16;
+
+  private static final int STATS_REFRESH_MILLIS = 500;
+  private static final Font STATS_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+
+  private MancalaModel model;
+  private JComponent[] pitPanels;
+  private SpriteAtlas atlas;
+  private SowingAnimator animator;
+  private Queue<BoardChangeEvent> changes; // changes since the last refresh
+  private AtomicBoolean isRefreshScheduled;
+  private volatile long lastRefreshNanos;
+  private Timer refreshTimer;
+  private boolean isStatsShown;
+  private Timer statsTimer;
+  private JLabel turnLabel;
+  private JLabel undoRemainingLabel;
+  private JButton undoButton;
+  private JButton redoButton;
+
+  /**
+   * Creates the board with specified attributes.
+   *
+   * @param model the Model from the MVC pattern
+   * @param mancalaStyle the style of the board
+   * @param isBComputer if player B's pits are played by the computer and can't be clicked
+   */
+  public BoardPanel(MancalaModel model, MancalaStyle mancalaStyle, boolean isBComputer) {
+    this.model = model;
+    pitPanels = new JComponent[MancalaModel.TOTAL_NUM_PITS];
+    atlas = SpriteAtlas.forStyle(mancalaStyle);
+    changes = new ConcurrentLinkedQueue<>();
+    isRefreshScheduled = new AtomicBoolean();
+    refreshTimer = new Timer(FRAME_MILLIS, e -> refresh());
+    refreshTimer.setRepeats(false);
+    statsTimer = new Timer(STATS_REFRESH_MILLIS, e -> repaint());
+
+    // Show or hide the statistics with F3
+    getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke("F3"), "toggleStats");
+    getActionMap()
+        .put(
+            "toggleStats",
+            new AbstractAction() {
+              @Override
+              public void actionPerformed(ActionEvent e) {
+                isStatsShown = !isStatsShown;
+                if (isStatsShown) {
+                  statsTimer.start();
+                } else {
+                  statsTimer.stop();
+                }
+                repaint();
+              }
+            });
+
+    setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
+    setBackground(mancalaStyle.getBackgroundColor());
+
+    turnLabel = new JLabel("Player " + (model.isPlayerATurn() ? "A" : "B") + "'s Turn");
+    turnLabel.setFont(FONT_18);
+    turnLabel.setForeground(mancalaStyle.getTextColor());
+    turnLabel.setHorizontalAlignment(SwingConstants.CENTER);
+
+    JPanel turnPanel = new JPanel();
+    turnPanel.setBackground(mancalaStyle.getBackgroundColor());
+    turnLabel.setPreferredSize(new Dimension(FRAME_WIDTH, UPPER_LOWER_PANEL_HEIGHT));
+    turnLabel.setMaximumSize(new Dimension(Integer.MAX_VALUE, UPPER_LOWER_PANEL_HEIGHT));
+    turnPanel.add(turnLabel);
+
+    JPanel gamePanel = new JPanel();
+    gamePanel.setLayout(new GridBagLayout());
+
+    MancalaPanel leftMancalaPanel = new MancalaPanel(model, false, mancalaStyle);
+    leftMancalaPanel.setBackground(mancalaStyle.getBackgroundColor());
+    leftMancalaPanel.setPreferredSize(new Dimension(PIT_WIDTH, GAME_PANEL_HEIGHT));
+    leftMancalaPanel.setMaximumSize(new Dimension(PIT_WIDTH, Integer.MAX_VALUE));
+
+    GridBagConstraints constraints = new GridBagConstraints();
+    constraints.fill = GridBagConstraints.BOTH;
+    constraints.gridheight = 2;
+    constraints.gridx = 0;
+    constraints.gridy = 0;
+    constraints.weightx = 0.5;
+    constraints.weighty = 0.5f;
+    gamePanel.add(leftMancalaPanel, constraints);
+    pitPanels[MancalaModel.B_MANCALA_POS] = leftMancalaPanel;
+
+    // Add Player B pits
+    for (int i = 0; i < MancalaModel.NUM_PITS_PER_PLAYER; i++) {
+      int index = MancalaModel.B_MANCALA_POS - 1 - i;
+      PitPanel pitPanel = new PitPanel(model, index, false, mancalaStyle);
+      pitPanels[index] = pitPanel;
+      pitPanel.setEnabled(!isBComputer);
+      pitPanel.setBackground(mancalaStyle.getBackgroundColor());
+      pitPanel.setPreferredSize(new Dimension(PIT_WIDTH, PIT_HEIGHT));
+      pitPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE));
+
+      constraints = new GridBagConstraints();
+      constraints.fill = GridBagConstraints.BOTH;
+      constraints.gridx = 1 + i;
+      constraints.gridy = 0;
+      constraints.weightx = 0.5;
+      constraints.weighty = 0.5f;
+      gamePanel.add(pitPanel, constraints);
+    }
+
+    // Add Player A pits
+    for (int i = 0; i < MancalaModel.NUM_PITS_PER_PLAYER; i++) {
+      PitPanel pitPanel = new PitPanel(model, i, true, mancalaStyle);
+      pitPanels[i] = pitPanel;
+      pitPanel.setBackground(mancalaStyle.getBackgroundColor());
+      pitPanel.setPreferredSize(new Dimension(PIT_WIDTH, PIT_HEIGHT));
+      pitPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, Integer.MAX_VALUE));
+
+      constraints = new GridBagConstraints();
+      constraints.fill = GridBagConstraints.BOTH;
+      constraints.gridx = 1 + i;
+      constraints.gridy = 1;
+      constraints.weightx = 0.5;
+      constraints.weighty = 0.5f;
+      gamePanel.add(pitPanel, constraints);
+    }
+
+    MancalaPanel rightMancalaPanel = new MancalaPanel(model, true, mancalaStyle);
+    rightMancalaPanel.setBackground(mancalaStyle.getBackgroundColor());
+    rightMancalaPanel.setPreferredSize(new Dimension(PIT_WIDTH, GAME_PANEL_HEIGHT));
+    rightMancalaPanel.setMaximumSize(new Dimension(PIT_WIDTH, Integer.MAX_VALUE));
+
+    constraints = new GridBagConstraints();
+    constraints.fill = GridBagConstraints.BOTH;
+    constraints.gridheight = 2;
+    constraints.gridx = 7;
+    constraints.gridy = 0;
+    constraints.weightx = 0.5;
+    constraints.weighty = 0.5f;
+    gamePanel.add(rightMancalaPanel, constraints);
+    pitPanels[MancalaModel.A_MANCALA_POS] = rightMancalaPanel;
+
+    undoButton = createButton("Undo", mancalaStyle);
+    undoButton.addActionListener(
+        new ActionListener() {
+          @Override
+          public void actionPerformed(ActionEvent e) {
+            // Against the computer, take back the player's own move along with the reply
+            if (isBComputer) {
+              model.undoTurn(true);
+            } else {
+              model.undoMove();
+            }
+          }
+        });
+
+    // Undone moves can be played again until another move is made
+    redoButton = createButton("Redo", mancalaStyle);
+    redoButton.setEnabled(false);
+    redoButton.addActionListener(
+        new ActionListener() {
+          @Override
+          public void actionPerformed(ActionEvent e) {
+            // Against the computer, play its reply again too
+            if (isBComputer) {
+              model.redoTurn(true);
+            } else {
+              model.redoMove();
+            }
+          }
+        });
+
+    undoRemainingLabel = new JLabel("remaining: " + model.getUndoRemaining());
+    undoRemainingLabel.setFont(FONT_18);
+    undoRemainingLabel.setForeground(mancalaStyle.getTextColor());
+
+    JPanel undoPanel = new JPanel();
+    undoPanel.setBackground(mancalaStyle.getBackgroundColor());
+    undoPanel.setPreferredSize(new Dimension(FRAME_WIDTH, UPPER_LOWER_PANEL_HEIGHT));
+    undoPanel.setMaximumSize(new Dimension(Integer.MAX_VALUE, UPPER_LOWER_PANEL_HEIGHT));
+    undoPanel.add(undoButton);
+    undoPanel.add(redoButton);
+    undoPanel.add(undoRemainingLabel);
+
+    // Add to panel
+    add(Box.createRigidArea(new Dimension(0, PADDING)));
+    add(turnPanel);
+    add(Box.createRigidArea(new Dimension(0, PADDING)));
+    add(gamePanel);
+    add(Box.createRigidArea(new Dimension(0, PADDING)));
+    add(undoPanel);
+    add(Box.createRigidArea(new Dimension(0, PADDING)));
+
+    animator = new SowingAnimator(this, model.getSnapshot());
+    for (int i = 0; i < MancalaModel.TOTAL_NUM_PITS; i++) {
+      if (pitPanels[i] instanceof PitPanel) {
+        ((PitPanel) pitPanels[i]).setAnimator(animator);
+      } else {
+        ((MancalaPanel) pitPanels[i]).setAnimator(animator);
+      }
+    }
+  }
+
+  /**
+   * Creates a button in the colors of the board.
+   *
+   * @param text the text of the button
+   * @param mancalaStyle the style of the board
+   * @return the button
+   */
+  private static JButton createButton(String text, MancalaStyle mancalaStyle) {
+    JButton button =
+        new JButton(text) {
+          @Override
+          protected void paintComponent(Graphics g) {
+            if (getModel().isPressed()) {
+              g.setColor(getBackground());
+            } else if (getModel().isRollover()) {
+              g.setColor(mancalaStyle.getPitDrawColor());
+            } else {
+              g.setColor(getBackground());
+            }
+            g.fillRect(0, 0, getWidth(), getHeight());
+            super.paintComponent(g);
+          }
+        };
+    button.setFocusPainted(false);
+    button.setContentAreaFilled(false);
+    button.setFont(FONT_18);
+    button.setBackground(mancalaStyle.getPitFillColor());
+    button.setForeground(mancalaStyle.getTextColor());
+    button.setBorder(BorderFactory.createLineBorder(mancalaStyle.getPitDrawColor()));
+    button.setPreferredSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+    button.setMaximumSize(new Dimension(BUTTON_WIDTH, BUTTON_HEIGHT));
+    return button;
+  }
+
+  /**
+   * Returns the panel showing a pit or Mancala.
+   *
+   * @param index the index of the pit
+   * @return the panel
+   */
+  JComponent getPitPanel(int index) {
+    return pitPanels[index];
+  }
+
+  /**
+   * Returns where a pit or Mancala is on the board.
+   *
+   * @param index the index of the pit
+   * @return the bounds of its panel, relative to this panel
+   */
+  Rectangle getPitBounds(int index) {
+    JComponent panel = pitPanels[index];
+    return SwingUtilities.convertRectangle(panel.getParent(), panel.getBounds(), this);
+  }
+
+  /**
+   * Repaints a pit or Mancala.
+   *
+   * @param index the index of the pit
+   */
+  void repaintPit(int index) {
+    pitPanels[index].repaint();
+  }
+
+  @Override
+  /** Draws the stones the animation has in flight over the pits. */
+  protected void paintChildren(Graphics g) {
+    super.paintChildren(g);
+    Graphics2D g2 = (Graphics2D) g;
+    double marbleSize = 0.2f * pitPanels[0].getWidth();
+    animator.paintFlights(g2, atlas.getMarble(g2, marbleSize), marbleSize);
+    if (isStatsShown) {
+      paintStats(g2);
+    }
+  }
+
+  /**
+   * Draws the measurements of {@link GuiStats} in the top left corner.
+   *
+   * @param g2 the graphics of the board
+   */
+  private void paintStats(Graphics2D g2) {
+    GuiStats stats = GuiStats.get();
+    String[] lines = {
+      "pit paint     " + stats.getPitPaint(),
+      "mancala paint " + stats.getMancalaPaint(),
+      "frame paint   " + stats.getFramePaint(),
+      "click to move " + stats.getClickToMove(),
+      "move to frame " + stats.getMoveToFrame()
+    };
+    g2.setFont(STATS_FONT);
+    FontMetrics metrics = g2.getFontMetrics();
+    int width = 0;
+    for (String line : lines) {
+      width = Math.max(width, metrics.stringWidth(line));
+    }
+    int lineHeight = metrics.getHeight();
+    g2.setColor(new Color(0, 0, 0, 160));
+    g2.fillRect(0, 0, width + 2 * PADDING, lines.length * lineHeight + PADDING);
+    g2.setColor(Color.WHITE);
+    for (int i = 0; i < lines.length; i++) {
+      g2.drawString(lines[i], PADDING, PADDING / 2 + i * lineHeight + metrics.getAscent());
+    }
+  }
+
+  @Override
+  /** Queues a change to be shown and schedules a refresh, which may be called on any thread. */
+  public void boardChanged(BoardChangeEvent e) {
+    changes.add(e);
+
+    if (isRefreshScheduled.compareAndSet(false, true)) {
+      // Show the first change at once, then at most one refresh per frame
+      long wait =
+          TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS) - (System.nanoTime() - lastRefreshNanos);
+      if (wait <= 0) {
+        SwingUtilities.invokeLater(this::refresh);
+      } else {
+        refreshTimer.setInitialDelay((int) TimeUnit.NANOSECONDS.toMillis(wait) + 1);
+        refreshTimer.restart();
+      }
+    }
+  }
+
+  /** Updates the labels and starts showing the changes since the last refresh. */
+  private void refresh() {
+    isRefreshScheduled.set(false);
+    lastRefreshNanos = System.nanoTime();
+    for (BoardChangeEvent change = changes.poll(); change != null; change = changes.poll()) {
+      animator.add(change);
+    }
+    GuiStats.changesShown();
+
+    // Read everything from one snapshot in case another thread moves meanwhile
+    MancalaModel.Snapshot snapshot = model.getSnapshot();
+    if (snapshot.gameOver()) {
+      // Change turn label's text to display winner
+      int winner = snapshot.getWinner();
+      turnLabel.setText(
+          winner == MancalaModel.TIE
+              ? "The game is a Tie!"
+              : "Player " + (winner == MancalaModel.A_WINNER ? "A" : "B") + " won!");
+
+      // Change undo remaining label and undo button text to indicate game over
+      undoRemainingLabel.setText("Game over!");
+      undoButton.setText("Menu");
+      redoButton.setVisible(false);
+
+      // Change undo button to main menu button
+      undoButton.removeActionListener(undoButton.getActionListeners()[0]);
+      undoButton.addActionListener(
+          new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+              // Destroy this window and create a new main menu view
+              Window window = SwingUtilities.getWindowAncestor(BoardPanel.this);
+              if (window != null) {
+                window.dispose();
+              }
+              new MenuView();
+            }
+          });
+    } else {
+      turnLabel.setText("Player " + (snapshot.isPlayerATurn() ? "A" : "B") + "'s Turn");
+      undoRemainingLabel.setText("remaining: " + snapshot.getUndoRemaining());
+      redoButton.setEnabled(snapshot.getPly() < snapshot.getNumMoves());
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package ram;
+
+import ram.engine.AlphaBetaEngine;
+import ram.engine.BoardChangeEvent;
+import ram.engine.BoardListener;
+import ram.engine.EndgameDatabase;
+import ram.engine.GameState;
+import ram.engine.MancalaModel;
+import ram.engine.OpeningBook;
+import ram.engine.SearchController;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Plays player B's side of the board with an {@link AlphaBetaEngine}. It listens to the model like
+ * a view does, searches in the background whenever it is player B's turn and applies its reply
+ * through {@link MancalaModel#move(int)}, just like a click on a pit. Every reply is searched for
+ * at most {@link #THINK_TIME_MILLIS} by a {@link SearchController}.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class ComputerPlayer implements BoardListener {
+  public static final long THINK_TIME_MILLIS = 100;
+
+  private MancalaModel model;
+  private AlphaBetaEngine engine;
+  private SearchController controller;
+  private SwingWorker<Integer, Void> worker;
+
+  /**
+   * Creates a computer player for player B.
+   *
+   * @param model the Model from the MVC pattern
+   */
+  public ComputerPlayer(MancalaModel model) {
+    this.model = model;
+    engine = new AlphaBetaEngine();
+
+    // Play endgames perfectly if a database has been built
+    Path endgameFile = Paths.get(EndgameDatabase.DEFAULT_FILE_NAME);
+    if (Files.exists(endgameFile)) {
+      try {
+        engine.setEndgameDatabase(EndgameDatabase.open(endgameFile));
+      } catch (IOException ex) {
+        System.err.println("Ignoring endgame database: " + ex.getMessage());
+      }
+    }
+
+    // And openings without thinking if a book has been built
+    Path bookFile = Paths.get(OpeningBook.DEFAULT_FILE_NAME);
+    if (Files.exists(bookFile)) {
+      try {
+        engine.setOpeningBook(OpeningBook.open(bookFile));
+      } catch (IOException ex) {
+        System.err.println("Ignoring opening book: " + ex.getMessage());
+      }
+    }
+    controller = new SearchController(engine, THINK_TIME_MILLIS);
+  }
+
+  @Override
+  /** Starts thinking when a move or undo hands the turn to player B. */
+  public void boardChanged(BoardChangeEvent e) {
+    play();
+  }
+
+  /** Searches for and plays player B's move in the background if it is player B's turn. */
+  public void play() {
+    MancalaModel.Snapshot snapshot = model.getSnapshot();
+    if (worker != null || snapshot.gameOver() || snapshot.isPlayerATurn()) {
+      return;
+    }
+
+    GameState state = snapshot.getGameState();
+    worker =
+        new SwingWorker<Integer, Void>() {
+          @Override
+          protected Integer doInBackground() {
+            return controller.search(state);
+          }
+
+          @Override
+          protected void done() {
+            worker = null;
+            int move;
+            try {
+              move = get();
+            } catch (InterruptedException | ExecutionException ex) {
+              throw new IllegalStateException("Computer player failed to move", ex);
+            }
+
+            // The board changed while searching (e.g. undo), so think again
+            if (!state.equals(model.getGameState())) {
+              play();
+            } else {
+              model.move(move);
+            }
+          }
+        };
+    worker.execute();
+  }
+}
@@ -0,0 +1,229 @@
+package ram;
+
+import ram.engine.MancalaModel;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.swing.*;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how responsive the game's window is: how long each pit, Mancala and whole frame takes
+ * to paint, how long a click waits on the event dispatch thread before its move is played, and
+ * how long after that the move is first painted. Each measurement goes into a {@link
+ * LatencyHistogram} and is also sent as a JFR event, which costs next to nothing unless a flight
+ * recording is running.
+ *
+ * <p>{@link #install()} starts timing frames and publishes the histograms as the MXBean {@value
+ * #OBJECT_NAME}, where tools such as JConsole can read them. {@link BoardPanel} shows them over
+ * the board when F3 is pressed.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class GuiStats implements GuiStatsMXBean {
+  public static final String OBJECT_NAME = "ram:type=GuiStats";
+
+  private static final GuiStats INSTANCE = new GuiStats();
+
+  private final LatencyHistogram pitPaint = new LatencyHistogram();
+  private final LatencyHistogram mancalaPaint = new LatencyHistogram();
+  private final LatencyHistogram framePaint = new LatencyHistogram();
+  private final LatencyHistogram clickToMove = new LatencyHistogram();
+  private final LatencyHistogram moveToFrame = new LatencyHistogram();
+
+  // The last move played by a click, until a frame shows it; only used on the EDT
+  private long clickWaitNanos;
+  private long movedNanos;
+  private boolean isMoveShown;
+  private boolean isInstalled;
+
+  private GuiStats() {}
+
+  /**
+   * Returns the statistics of the game's windows.
+   *
+   * @return the only instance
+   */
+  public static GuiStats get() {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts timing every frame and publishes the statistics over JMX, unless that was done
+   * already. Must be called on the event dispatch thread.
+   */
+  public void install() {
+    if (isInstalled) {
+      return;
+    }
+    isInstalled = true;
+    RepaintManager.setCurrentManager(new FrameTimer());
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    } catch (InstanceAlreadyExistsException ex) {
+      // Another class loader published its own
+    } catch (JMException ex) {
+      throw new IllegalStateException("Can't publish " + OBJECT_NAME, ex);
+    }
+  }
+
+  /**
+   * Starts timing a paint.
+   *
+   * @return the event to pass to {@link #endPaint}
+   */
+  public static PaintEvent startPaint() {
+    PaintEvent event = new PaintEvent();
+    event.startNanos = System.nanoTime();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Records a paint of a pit or Mancala.
+   *
+   * @param event the event from {@link #startPaint()}
+   * @param index the index of the pit painted
+   */
+  public static void endPaint(PaintEvent event, int index) {
+    event.end();
+    boolean isMancala =
+        index == MancalaModel.A_MANCALA_POS || index == MancalaModel.B_MANCALA_POS;
+    (isMancala ? INSTANCE.mancalaPaint : INSTANCE.pitPaint)
+        .record(System.nanoTime() - event.startNanos);
+    if (event.shouldCommit()) {
+      event.component = isMancala ? "MancalaPanel" : "PitPanel";
+      event.pit = index;
+      event.commit();
+    }
+  }
+
+  /**
+   * Records that a click played a move. Must be called on the event dispatch thread.
+   *
+   * @param clickMillis when the click happened, from {@link java.awt.event.InputEvent#getWhen()}
+   */
+  public static void movePlayed(long clickMillis) {
+    INSTANCE.clickWaitNanos =
+        TimeUnit.MILLISECONDS.toNanos(Math.max(System.currentTimeMillis() - clickMillis, 0));
+    INSTANCE.clickToMove.record(INSTANCE.clickWaitNanos);
+    INSTANCE.movedNanos = System.nanoTime();
+    INSTANCE.isMoveShown = false;
+  }
+
+  /**
+   * Records that the board has been told about the latest change, so the next frame shows the
+   * move of the last click. Must be called on the event dispatch thread.
+   */
+  public static void changesShown() {
+    if (INSTANCE.movedNanos != 0) {
+      INSTANCE.isMoveShown = true;
+    }
+  }
+
+  @Override
+  public LatencyHistogram.Summary getPitPaint() {
+    return pitPaint.getSummary();
+  }
+
+  @Override
+  public LatencyHistogram.Summary getMancalaPaint() {
+    return mancalaPaint.getSummary();
+  }
+
+  @Override
+  public LatencyHistogram.Summary getFramePaint() {
+    return framePaint.getSummary();
+  }
+
+  @Override
+  public LatencyHistogram.Summary getClickToMove() {
+    return clickToMove.getSummary();
+  }
+
+  @Override
+  public LatencyHistogram.Summary getMoveToFrame() {
+    return moveToFrame.getSummary();
+  }
+
+  @Override
+  public void reset() {
+    pitPaint.reset();
+    mancalaPaint.reset();
+    framePaint.reset();
+    clickToMove.reset();
+    moveToFrame.reset();
+  }
+
+  /** Times each frame Swing paints, and notes the first one showing a clicked move. */
+  private class FrameTimer extends RepaintManager {
+    @Override
+    public void paintDirtyRegions() {
+      PaintEvent event = startPaint();
+      super.paintDirtyRegions();
+      event.end();
+      long now = System.nanoTime();
+      framePaint.record(now - event.startNanos);
+      if (event.shouldCommit()) {
+        event.component = "MancalaView";
+        event.pit = -1;
+        event.commit();
+      }
+
+      if (isMoveShown) {
+        long frameNanos = now - movedNanos;
+        moveToFrame.record(frameNanos);
+        MoveLatencyEvent latency = new MoveLatencyEvent();
+        if (latency.shouldCommit()) {
+          latency.clickToMove = clickWaitNanos;
+          latency.moveToFrame = frameNanos;
+          latency.commit();
+        }
+        movedNanos = 0;
+        isMoveShown = false;
+      }
+    }
+  }
+
+  /** A pit, Mancala or whole frame of the game's window being painted. */
+  @Name("ram.Paint")
+  @Label("Paint")
+  @Category({"Mancala", "GUI"})
+  @Description("A pit, Mancala or whole frame of the board being painted")
+  public static class PaintEvent extends Event {
+    @Label("Component")
+    String component;
+
+    @Label("Pit")
+    @Description("The index of the pit painted, or -1 for a whole frame")
+    int pit;
+
+    transient long startNanos;
+  }
+
+  /** The delays between a click on a pit and the first frame showing its move. */
+  @Name("ram.MoveLatency")
+  @Label("Move Latency")
+  @Category({"Mancala", "GUI"})
+  @Description("Delays between a click on a pit and the first frame showing its move")
+  public static class MoveLatencyEvent extends Event {
+    @Label("Click to Move")
+    @Description("How long the click waited on the event dispatch thread")
+    @Timespan
+    long clickToMove;
+
+    @Label("Move to Frame")
+    @Description("How long after the move the first frame showing it was painted")
+    @Timespan
+    long moveToFrame;
+  }
+}
@@ -0,0 +1,27 @@
+package ram;
+
+/**
+ * The paint times and input latencies of the game's window, as published over JMX by {@link
+ * GuiStats}. Every time is in microseconds.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public interface GuiStatsMXBean {
+  /** Returns how long painting a {@link PitPanel} took. */
+  LatencyHistogram.Summary getPitPaint();
+
+  /** Returns how long painting a {@link MancalaPanel} took. */
+  LatencyHistogram.Summary getMancalaPaint();
+
+  /** Returns how long painting each frame of a {@link MancalaView} took. */
+  LatencyHistogram.Summary getFramePaint();
+
+  /** Returns how long clicks waited on the event dispatch thread before moving. */
+  LatencyHistogram.Summary getClickToMove();
+
+  /** Returns how long after a move the first frame showing it was painted. */
+  LatencyHistogram.Summary getMoveToFrame();
+
+  /** Forgets every time recorded. */
+  void reset();
+}
@@ -0,0 +1,162 @@
+package ram;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in buckets that grow with the duration, eight to each power of two, so any
+ * duration is kept to within 12.5% in a few kilobytes. Recording takes no lock and can be done
+ * from any thread.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int NUM_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * Adds a duration.
+   *
+   * @param nanos the duration in nanoseconds, with negative ones counted as 0
+   */
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    buckets.incrementAndGet(bucket(value));
+    count.incrementAndGet();
+    totalNanos.addAndGet(value);
+    maxNanos.accumulateAndGet(value, Math::max);
+  }
+
+  private static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  private static long upperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    return (SUB_BUCKETS + bucket % SUB_BUCKETS) * width + width - 1;
+  }
+
+  /**
+   * Returns the number of durations recorded.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Returns a duration that the given share of the recorded ones don't exceed.
+   *
+   * @param percentile the share, from 0 to 100
+   * @return the duration in nanoseconds, rounded up to its bucket, or 0 if none were recorded
+   */
+  public long getPercentileNanos(double percentile) {
+    long total = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      total += buckets.get(i);
+    }
+    long rank = (long) Math.ceil(percentile / 100 * total);
+    long seen = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      seen += buckets.get(i);
+      if (seen >= rank && seen > 0) {
+        return Math.min(upperBound(i), maxNanos.get());
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the summary of the durations recorded so far.
+   *
+   * @return the summary
+   */
+  public Summary getSummary() {
+    long n = count.get();
+    return new Summary(
+        n,
+        n == 0 ? 0 : totalNanos.get() / 1e3 / n,
+        getPercentileNanos(50) / 1e3,
+        getPercentileNanos(99) / 1e3,
+        maxNanos.get() / 1e3);
+  }
+
+  /** Forgets every duration recorded. */
+  public void reset() {
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    totalNanos.set(0);
+    maxNanos.set(0);
+  }
+
+  /** Durations of a histogram at one moment, in microseconds. */
+  public static class Summary {
+    private final long count;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double maxMicros;
+
+    Summary(long count, double meanMicros, double p50Micros, double p99Micros, double maxMicros) {
+      this.count = count;
+      this.meanMicros = meanMicros;
+      this.p50Micros = p50Micros;
+      this.p99Micros = p99Micros;
+      this.maxMicros = maxMicros;
+    }
+
+    /** Returns the number of durations. */
+    public long getCount() {
+      return count;
+    }
+
+    /** Returns the mean duration. */
+    public double getMeanMicros() {
+      return meanMicros;
+    }
+
+    /** Returns the median duration. */
+    public double getP50Micros() {
+      return p50Micros;
+    }
+
+    /** Returns the duration 99% of the others don't exceed. */
+    public double getP99Micros() {
+      return p99Micros;
+    }
+
+    /** Returns the longest duration. */
+    public double getMaxMicros() {
+      return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "n=%d mean %.2f p50 %.2f p99 %.2f max %.2f ms",
+          count,
+          meanMicros / 1e3,
+          p50Micros / 1e3,
+          p99Micros / 1e3,
+          maxMicros / 1e3);
+    }
+  }
+}
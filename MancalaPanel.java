@@ -1,11 +1,12 @@
 package ram;
 
+import ram.engine.MancalaModel;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
 import java.awt.geom.RoundRectangle2D;
-import java.util.ArrayList;
-import java.util.Random;
 
 import static ram.MenuView.FONT_18;
 import static ram.MenuView.PADDING;
@@ -20,8 +21,13 @@ public class MancalaPanel extends JPanel {
   private boolean isA;
   private MancalaStyle style;
 
-  private Random random;
-  private ArrayList<Ellipse2D.Double> marbles;
+  // The Mancala's outline and marbles and sprites for the current size, rebuilt when it changes
+  private RoundRectangle2D.Double mancala;
+  private MarbleLayout layout;
+  private SpriteAtlas atlas;
+  private SpriteAtlas.Sprite mancalaSprite;
+  private SpriteAtlas.Sprite marbleSprite;
+  private SowingAnimator animator;
 
   /**
    * Creates an instance of the MancalaPanel.
@@ -34,23 +40,35 @@ public class MancalaPanel extends JPanel {
     this.model = model;
     this.isA = isA;
     this.style = style;
-
-    random = new Random();
-    marbles = new ArrayList<>();
+    atlas = SpriteAtlas.forStyle(style);
   }
 
-  @Override
-  /** Creates the Mancala board and stones. */
-  protected void paintComponent(Graphics g) {
-    super.paintComponent(g);
-    Graphics2D g2 = (Graphics2D) g;
+  /**
+   * Shows the stones an animator says are in the Mancala instead of the model's count.
+   *
+   * @param animator the animator playing back the model's moves
+   */
+  void setAnimator(SowingAnimator animator) {
+    this.animator = animator;
+  }
 
-    // Actual mancala
+  /**
+   * Lays out the Mancala and its marbles and fetches their sprites again if the panel was resized
+   * or is now drawn at another display scale.
+   *
+   * @param g2 the graphics the panel is painted on
+   */
+  private void updateLayout(Graphics2D g2) {
+    if (layout != null
+        && layout.fits(getWidth(), getHeight())
+        && marbleSprite.getScale() == SpriteAtlas.getScale(g2)) {
+      return;
+    }
     float mancalaWidth = 0.8f * getWidth();
     float mancalaHeight = 0.8f * getHeight();
     float mancalaX = (getWidth() - mancalaWidth) / 2;
     float mancalaY = (getHeight() - mancalaHeight) / 2;
-    RoundRectangle2D.Double mancala =
+    mancala =
         new RoundRectangle2D.Double(
             mancalaX,
             mancalaY,
@@ -58,11 +76,30 @@ public class MancalaPanel extends JPanel {
             mancalaHeight,
             mancalaWidth,
             (1f / 6f) * mancalaHeight);
-    g2.setColor(style.getPitFillColor());
-    g2.fill(mancala);
-    g2.setStroke(MancalaView.STROKE);
-    g2.setColor(style.getPitDrawColor());
-    g2.draw(mancala);
+
+    // Keep the marbles clear of the name and count
+    Rectangle2D.Double area =
+        new Rectangle2D.Double(
+            mancalaX, mancalaY + 0.2f * mancalaHeight, mancalaWidth, 0.6f * mancalaHeight);
+    layout =
+        new MarbleLayout(
+            getWidth(), getHeight(), mancala, area, 0.2f * getWidth(), isA ? -1 : -2);
+    mancalaSprite = atlas.getMancala(g2, mancala.width, mancala.height);
+    marbleSprite = atlas.getMarble(g2, 0.2f * getWidth());
+  }
+
+  @Override
+  /** Creates the Mancala board and stones. */
+  protected void paintComponent(Graphics g) {
+    GuiStats.PaintEvent paint = GuiStats.startPaint();
+    super.paintComponent(g);
+    Graphics2D g2 = (Graphics2D) g;
+
+    // Actual mancala
+    updateLayout(g2);
+    float mancalaY = (float) mancala.y;
+    float mancalaHeight = (float) mancala.height;
+    mancalaSprite.draw(g2, mancala.x, mancala.y);
 
     // Pit name
     g2.setColor(style.getTextColor());
@@ -74,43 +111,18 @@ public class MancalaPanel extends JPanel {
     g2.drawString(pitName, x, y);
 
     // Marble count
-    int numMarbles =
-        model.getMarbles(isA ? MancalaModel.A_MANCALA_POS : MancalaModel.B_MANCALA_POS);
+    int index = isA ? MancalaModel.A_MANCALA_POS : MancalaModel.B_MANCALA_POS;
+    int numMarbles = animator != null ? animator.getMarbles(index) : model.getMarbles(index);
     String marbleStr = String.valueOf(numMarbles);
     x = (getWidth() - metrics.stringWidth(marbleStr)) / 2;
     y = isA ? mancalaY + metrics.getAscent() + PADDING : mancalaY + mancalaHeight - PADDING;
     g2.drawString(marbleStr, x, y);
 
-    // Draw randomly positioned marbles
-    float marbleSize = 0.2f * getWidth();
-
-    // Different number of marbles, re-randomize
-    if (numMarbles != marbles.size()) {
-      marbles.clear();
-
-      for (int i = 0; i < numMarbles; i++) {
-        Ellipse2D.Double marble;
-
-        // Keep randomly placing marble until it is completely inside the pit
-        do {
-          x = mancalaX + random.nextFloat() * (mancalaWidth - marbleSize);
-          y =
-              mancalaY
-                  + 0.2f * mancalaHeight
-                  + random.nextFloat() * (0.6f * mancalaHeight - marbleSize);
-          marble = new Ellipse2D.Double(x, y, marbleSize, marbleSize);
-        } while (!mancala.contains(marble.x, marble.y, marble.width, marble.height));
-
-        marbles.add(marble);
-      }
-    }
-
     // Draw marbles
-    for (Ellipse2D.Double marble : marbles) {
-      g2.setColor(style.getMarbleFillColor());
-      g2.fill(marble);
-      g2.setColor(style.getMarbleDrawColor());
-      g2.draw(marble);
+    for (int i = 0; i < numMarbles; i++) {
+      Ellipse2D.Double marble = layout.getMarble(i);
+      marbleSprite.draw(g2, marble.x, marble.y);
     }
+    GuiStats.endPaint(paint, index);
   }
 }
@@ -1,12 +1,19 @@
 package ram;
 
+import ram.engine.HeadlessLauncher;
+
 /**
- * Calls MenuView to run the application.
+ * Calls MenuView to run the application. With arguments, runs a {@link HeadlessLauncher} command
+ * instead, without loading AWT or Swing.
  *
  * @author Aniqua Azad, Malaak Khalil, Ryan Tran
  */
 public class MancalaTest {
-  public static void main(String[] args) {
+  public static void main(String[] args) throws Exception {
+    if (args.length > 0) {
+      HeadlessLauncher.main(args);
+      return;
+    }
     new MenuView();
   }
 }
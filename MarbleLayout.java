@@ -0,0 +1,116 @@
+package ram;
+
+import java.awt.Shape;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Where the marbles of one pit or Mancala are drawn at one panel size. Marbles sit on a hexagonal
+ * grid of slots that fit inside the pit's outline and are used in a shuffled order, so they look
+ * scattered but never overlap. Once every slot is taken, further marbles go on another layer of
+ * the same slots, shifted a little so the layers stay visible. Positions are computed once, so
+ * painting any number of marbles costs no more than drawing them.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class MarbleLayout {
+  private static final double GAP = 1.05;
+  private static final double LAYER_SHIFT = 0.25;
+  private static final int MAX_LAYER_SHIFTS = 4;
+
+  private final int width;
+  private final int height;
+  private final Shape outline;
+  private final Ellipse2D.Double[] slots;
+  private final List<Ellipse2D.Double> marbles = new ArrayList<>();
+  private final double marbleSize;
+
+  /**
+   * Lays out the slots of a pit.
+   *
+   * @param width the width of the panel the layout is for
+   * @param height the height of the panel the layout is for
+   * @param outline the pit's outline, which marbles must stay inside
+   * @param area the part of the pit marbles may be placed in
+   * @param marbleSize the diameter of a marble
+   * @param seed the seed for the order the slots are used in
+   */
+  public MarbleLayout(
+      int width, int height, Shape outline, Rectangle2D area, double marbleSize, long seed) {
+    this.width = width;
+    this.height = height;
+    this.outline = outline;
+    this.marbleSize = marbleSize;
+
+    double spacing = GAP * marbleSize;
+    double rowHeight = spacing * Math.sqrt(3) / 2;
+    List<Ellipse2D.Double> fits = new ArrayList<>();
+    int row = 0;
+    for (double y = area.getY(); y + marbleSize <= area.getMaxY(); y += rowHeight, row++) {
+      double start = area.getX() + ((row & 1) == 0 ? 0 : spacing / 2);
+      for (double x = start; x + marbleSize <= area.getMaxX(); x += spacing) {
+        if (outline.contains(x, y, marbleSize, marbleSize)) {
+          fits.add(new Ellipse2D.Double(x, y, marbleSize, marbleSize));
+        }
+      }
+    }
+    if (fits.isEmpty()) {
+      // Too small for even one marble, so stack them in the middle
+      fits.add(
+          new Ellipse2D.Double(
+              area.getCenterX() - marbleSize / 2,
+              area.getCenterY() - marbleSize / 2,
+              marbleSize,
+              marbleSize));
+    }
+    Collections.shuffle(fits, new Random(seed));
+    slots = fits.toArray(new Ellipse2D.Double[0]);
+  }
+
+  /**
+   * Returns whether this layout was made for a panel size.
+   *
+   * @param width the panel's width
+   * @param height the panel's height
+   * @return whether the layout can be reused at that size
+   */
+  public boolean fits(int width, int height) {
+    return this.width == width && this.height == height;
+  }
+
+  /**
+   * Returns the number of marbles that fit before they start to overlap.
+   *
+   * @return the number of slots
+   */
+  public int getCapacity() {
+    return slots.length;
+  }
+
+  /**
+   * Returns where a marble is drawn. Marbles past the ones already asked for are placed now and
+   * kept, so repeated calls allocate nothing.
+   *
+   * @param i the marble, counted from 0
+   * @return the marble's bounds, which must not be changed
+   */
+  public Ellipse2D.Double getMarble(int i) {
+    while (marbles.size() <= i) {
+      int n = marbles.size();
+      Ellipse2D.Double slot = slots[n % slots.length];
+      int layer = n / slots.length;
+      double shift = LAYER_SHIFT * marbleSize * (layer % MAX_LAYER_SHIFTS);
+      double x = slot.x + ((layer & 1) == 0 ? shift : -shift);
+      double y = slot.y - shift;
+      marbles.add(
+          layer == 0 || !outline.contains(x, y, marbleSize, marbleSize)
+              ? slot
+              : new Ellipse2D.Double(x, y, marbleSize, marbleSize));
+    }
+    return marbles.get(i);
+  }
+}
@@ -1,5 +1,7 @@
 package ram;
 
+import ram.engine.MancalaModel;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -47,6 +49,15 @@ public class MenuView extends JFrame {
     styleGroup.add(forestStyleButton);
     styleGroup.add(volcanoStyleButton);
 
+    // Opponent
+    JLabel opponentLabel = new JLabel("Player B:");
+    opponentLabel.setFont(FONT_18);
+    JRadioButton humanButton = new JRadioButton("Human", true);
+    JRadioButton computerButton = new JRadioButton("Computer", false);
+    ButtonGroup opponentGroup = new ButtonGroup();
+    opponentGroup.add(humanButton);
+    opponentGroup.add(computerButton);
+
     // Play button
     JButton playButton = new JButton("Play!");
     playButton.setFont(FONT_18);
@@ -66,9 +77,17 @@ public class MenuView extends JFrame {
               if (styleButton.isSelected()) {
                 MancalaModel model = new MancalaModel();
                 model.setUpMancalaBoard(marbles3Button.isSelected() ? 3 : 4);
-                MancalaView view = new MancalaView(model, styleButton.getText());
+                MancalaView view =
+                    new MancalaView(model, styleButton.getText(), computerButton.isSelected());
                 model.attach(view);
 
+                // Let the computer answer for player B
+                if (computerButton.isSelected()) {
+                  ComputerPlayer computerPlayer = new ComputerPlayer(model);
+                  model.attach(computerPlayer);
+                  computerPlayer.play();
+                }
+
                 // Destroy menu view
                 dispose();
                 break;
@@ -132,6 +151,10 @@ public class MenuView extends JFrame {
     mainPanel.add(forestStyleButton);
     mainPanel.add(volcanoStyleButton);
     mainPanel.add(Box.createRigidArea(paddingDim));
+    mainPanel.add(opponentLabel);
+    mainPanel.add(humanButton);
+    mainPanel.add(computerButton);
+    mainPanel.add(Box.createRigidArea(paddingDim));
     mainPanel.add(playButton);
     mainPanel.add(Box.createRigidArea(paddingDim));
     mainPanel.add(helpButton);
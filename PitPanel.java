@@ -1,12 +1,12 @@
 package ram;
 
+import ram.engine.MancalaModel;
+
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.event.MouseListener;
 import java.awt.geom.Ellipse2D;
-import java.util.ArrayList;
-import java.util.Random;
 
 import static ram.MenuView.FONT_18;
 import static ram.MenuView.PADDING;
@@ -22,8 +22,13 @@ public class PitPanel extends JPanel {
   private boolean isA;
   private MancalaStyle style;
 
-  private Random random;
-  private ArrayList<Ellipse2D.Double> marbles;
+  // The pit's outline and marbles and sprites for the current size, rebuilt when it changes
+  private Ellipse2D.Double pit;
+  private MarbleLayout layout;
+  private SpriteAtlas atlas;
+  private SpriteAtlas.Sprite pitSprite;
+  private SpriteAtlas.Sprite marbleSprite;
+  private SowingAnimator animator;
 
   /**
    * Creates an instance of PitPanel.
@@ -38,51 +43,67 @@ public class PitPanel extends JPanel {
     this.index = index;
     this.isA = isA;
     this.style = style;
+    atlas = SpriteAtlas.forStyle(style);
 
-    random = new Random();
-    marbles = new ArrayList<>();
-  }
-
-  @Override
-  protected void paintComponent(Graphics g) {
-    super.paintComponent(g);
-    Graphics2D g2 = (Graphics2D) g;
-
-    // Actual pit
-    float pitWidth = 0.7f * getWidth();
-    float pitHeight = 0.5f * getHeight();
-    float pitX = (getWidth() - pitWidth) / 2;
-    float pitY = (getHeight() - pitHeight) / 2;
-    Ellipse2D.Double pit = new Ellipse2D.Double(pitX, pitY, pitWidth, pitHeight);
-    if (getMouseListeners().length > 0) {
-      removeMouseListener(getMouseListeners()[0]);
-    }
     addMouseListener(
-        new MouseListener() {
+        new MouseAdapter() {
           @Override
           public void mouseClicked(MouseEvent e) {
-            if (pit.contains(e.getX(), e.getY())) {
+            // Disabled pits belong to the computer player
+            if (isEnabled() && pit != null && pit.contains(e.getX(), e.getY())) {
+              int ply = model.getPly();
               model.move(index);
+              if (model.getPly() != ply) {
+                GuiStats.movePlayed(e.getWhen());
+              }
             }
           }
+        });
+  }
 
-          @Override
-          public void mousePressed(MouseEvent e) {}
+  /**
+   * Shows the stones an animator says are in the pit instead of the model's count.
+   *
+   * @param animator the animator playing back the model's moves
+   */
+  void setAnimator(SowingAnimator animator) {
+    this.animator = animator;
+  }
 
-          @Override
-          public void mouseReleased(MouseEvent e) {}
+  /**
+   * Lays out the pit and its marbles and fetches their sprites again if the panel was resized or
+   * is now drawn at another display scale.
+   *
+   * @param g2 the graphics the panel is painted on
+   */
+  private void updateLayout(Graphics2D g2) {
+    if (layout != null
+        && layout.fits(getWidth(), getHeight())
+        && marbleSprite.getScale() == SpriteAtlas.getScale(g2)) {
+      return;
+    }
+    float pitWidth = 0.7f * getWidth();
+    float pitHeight = 0.5f * getHeight();
+    float pitX = (getWidth() - pitWidth) / 2;
+    float pitY = (getHeight() - pitHeight) / 2;
+    pit = new Ellipse2D.Double(pitX, pitY, pitWidth, pitHeight);
+    layout =
+        new MarbleLayout(getWidth(), getHeight(), pit, pit.getBounds2D(), 0.2f * getWidth(), index);
+    pitSprite = atlas.getPit(g2, pit.width, pit.height);
+    marbleSprite = atlas.getMarble(g2, 0.2f * getWidth());
+  }
 
-          @Override
-          public void mouseEntered(MouseEvent e) {}
+  @Override
+  protected void paintComponent(Graphics g) {
+    GuiStats.PaintEvent paint = GuiStats.startPaint();
+    super.paintComponent(g);
+    Graphics2D g2 = (Graphics2D) g;
 
-          @Override
-          public void mouseExited(MouseEvent e) {}
-        });
-    g2.setColor(style.getPitFillColor());
-    g2.fill(pit);
-    g2.setStroke(MancalaView.STROKE);
-    g2.setColor(style.getPitDrawColor());
-    g2.draw(pit);
+    // Actual pit
+    updateLayout(g2);
+    float pitHeight = (float) pit.height;
+    float pitY = (float) pit.y;
+    pitSprite.draw(g2, pit.x, pit.y);
 
     // Pit name
     g2.setColor(style.getTextColor());
@@ -94,39 +115,17 @@ public class PitPanel extends JPanel {
     g2.drawString(pitName, x, y);
 
     // Marble count
-    int numMarbles = model.getMarbles(index);
+    int numMarbles = animator != null ? animator.getMarbles(index) : model.getMarbles(index);
     String marbleStr = String.valueOf(numMarbles);
     x = (getWidth() - metrics.stringWidth(marbleStr)) / 2;
     y = isA ? pitY - PADDING : pitY + pitHeight + metrics.getAscent() + PADDING;
     g2.drawString(marbleStr, x, y);
 
-    // Draw randomly positioned marbles
-    float marbleSize = 0.2f * getWidth();
-
-    // Different number of marbles, re-randomize
-    if (numMarbles != marbles.size()) {
-      marbles.clear();
-
-      for (int i = 0; i < numMarbles; i++) {
-        Ellipse2D.Double marble;
-
-        // Keep randomly placing marble until it is completely inside the pit
-        do {
-          x = pitX + random.nextFloat() * (pitWidth - marbleSize);
-          y = pitY + random.nextFloat() * (pitHeight - marbleSize);
-          marble = new Ellipse2D.Double(x, y, marbleSize, marbleSize);
-        } while (!pit.contains(marble.x, marble.y, marble.width, marble.height));
-
-        marbles.add(marble);
-      }
-    }
-
     // Draw marbles
-    for (Ellipse2D.Double marble : marbles) {
-      g2.setColor(style.getMarbleFillColor());
-      g2.fill(marble);
-      g2.setColor(style.getMarbleDrawColor());
-      g2.draw(marble);
+    for (int i = 0; i < numMarbles; i++) {
+      Ellipse2D.Double marble = layout.getMarble(i);
+      marbleSprite.draw(g2, marble.x, marble.y);
     }
+    GuiStats.endPaint(paint, index);
   }
 }
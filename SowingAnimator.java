@@ -0,0 +1,324 @@
+package ram;
+
+import ram.engine.BoardChangeEvent;
+import ram.engine.MancalaModel;
+import ram.engine.MoveHistory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.Point2D;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays back the model's changes on a {@link BoardPanel}. The model applies each move at once;
+ * this shows it afterwards, with stones leaving the chosen pit one at a time and then captured or
+ * leftover stones sweeping into the Mancalas. Undos and other jumps are shown at once.
+ *
+ * <p>Animation runs on a Swing {@link Timer}, so it never blocks the event dispatch thread and
+ * clicks are handled between frames. Each frame works out the board from the time elapsed since
+ * the move started, in time proportional to the number of pits, so frames cost the same however
+ * many stones or laps a move has, and a late frame skips ahead rather than falling behind. Moves
+ * with many stones are sped up to fit {@link #MAX_SOW_MILLIS}. One move may wait for the one
+ * playing; if another arrives, the one playing is finished at once. Every method must be called on
+ * the event dispatch thread.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class SowingAnimator {
+  public static final int STEP_MILLIS = 120;
+  public static final int MAX_SOW_MILLIS = 1500;
+  public static final int SWEEP_MILLIS = 300;
+
+  private final BoardPanel boardPanel;
+  private final Timer timer;
+  private final Queue<BoardChangeEvent> pending = new ArrayDeque<>();
+  private final int[] shown; // the stones shown in each pit
+
+  // The move being shown
+  private BoardChangeEvent current;
+  private int[] path; // the pits sown in order, one lap
+  private int origin;
+  private int numStones;
+  private long stepNanos;
+  private long startNanos;
+  private int[] sown; // the board after sowing, before any sweep
+  private boolean isSweeping;
+
+  // The stones in flight, drawn over the pits
+  private final int[] flightFrom = new int[MancalaModel.TOTAL_NUM_PITS];
+  private final int[] flightTo = new int[MancalaModel.TOTAL_NUM_PITS];
+  private int numFlights;
+  private double flightFraction;
+  private final Rectangle flightBounds = new Rectangle();
+
+  /**
+   * Creates an animator showing a board's state.
+   *
+   * @param boardPanel the board to animate
+   * @param snapshot the state shown at first
+   */
+  public SowingAnimator(BoardPanel boardPanel, MancalaModel.Snapshot snapshot) {
+    this.boardPanel = boardPanel;
+    shown = new int[MancalaModel.TOTAL_NUM_PITS];
+    for (int i = 0; i < shown.length; i++) {
+      shown[i] = snapshot.getMarbles(i);
+    }
+    timer = new Timer(BoardPanel.FRAME_MILLIS, e -> nextFrame());
+    timer.setCoalesce(true);
+  }
+
+  /**
+   * Returns the number of stones to show in a pit.
+   *
+   * @param index the index of the pit
+   * @return the stones in the pit at this point of the animation
+   */
+  public int getMarbles(int index) {
+    return shown[index];
+  }
+
+  /**
+   * Shows a change, after the ones already waiting.
+   *
+   * @param e the change
+   */
+  public void add(BoardChangeEvent e) {
+    if (!isMove(e)) {
+      // Jump straight to the new state, dropping moves it replaced
+      pending.clear();
+      finish();
+      show(e.getAfter());
+      return;
+    }
+    pending.add(e);
+    if (current == null) {
+      start(pending.poll());
+    } else if (pending.size() > 1) {
+      // Catch up rather than let the view fall behind the game
+      finish();
+      start(pending.poll());
+    }
+  }
+
+  /**
+   * Returns whether a change is a single move played or redone.
+   *
+   * @param e the change
+   * @return whether it can be animated
+   */
+  private static boolean isMove(BoardChangeEvent e) {
+    MancalaModel.Snapshot before = e.getBefore();
+    MancalaModel.Snapshot after = e.getAfter();
+    return before != null
+        && after.getPly() == before.getPly() + 1
+        && after.getStartingStones() == before.getStartingStones();
+  }
+
+  /**
+   * Starts showing a move.
+   *
+   * @param e the move
+   */
+  private void start(BoardChangeEvent e) {
+    MancalaModel.Snapshot before = e.getBefore();
+    current = e;
+    origin = e.getAfter().getMove(before.getPly());
+    numStones = before.getMarbles(origin);
+    int opponentMancala =
+        before.isPlayerATurn() ? MancalaModel.B_MANCALA_POS : MancalaModel.A_MANCALA_POS;
+    path = new int[MancalaModel.TOTAL_NUM_PITS - 1];
+    int pit = origin;
+    for (int i = 0; i < path.length; i++) {
+      pit = (pit + 1) % MancalaModel.TOTAL_NUM_PITS;
+      if (pit == opponentMancala) {
+        pit = (pit + 1) % MancalaModel.TOTAL_NUM_PITS;
+      }
+      path[i] = pit;
+    }
+
+    show(before);
+    sown = sowBoard(numStones);
+    stepNanos =
+        Math.min(
+            TimeUnit.MILLISECONDS.toNanos(STEP_MILLIS),
+            TimeUnit.MILLISECONDS.toNanos(MAX_SOW_MILLIS) / Math.max(numStones, 1));
+    startNanos = System.nanoTime();
+    isSweeping = false;
+    timer.start();
+  }
+
+  /**
+   * Works out the board once some stones of the current move have been sown.
+   *
+   * @param landed the number of stones sown
+   * @return the board
+   */
+  private int[] sowBoard(int landed) {
+    MancalaModel.Snapshot before = current.getBefore();
+    int[] board = new int[MancalaModel.TOTAL_NUM_PITS];
+    for (int i = 0; i < board.length; i++) {
+      board[i] = before.getMarbles(i);
+    }
+    board[origin] -= numStones;
+    int laps = landed / path.length;
+    int rest = landed % path.length;
+    for (int i = 0; i < path.length; i++) {
+      board[path[i]] += laps + (i < rest ? 1 : 0);
+    }
+    return board;
+  }
+
+  /** Moves the animation on to the current time. */
+  private void nextFrame() {
+    if (current == null) {
+      timer.stop();
+      return;
+    }
+    long elapsed = System.nanoTime() - startNanos;
+    long sowNanos = numStones * stepNanos;
+    repaintFlights();
+    if (elapsed < sowNanos) {
+      int landed = (int) (elapsed / stepNanos);
+      setShown(sowBoard(landed));
+      numFlights = 1;
+      flightFrom[0] = landed == 0 ? origin : path[(landed - 1) % path.length];
+      flightTo[0] = path[landed % path.length];
+      flightFraction = (elapsed - landed * stepNanos) / (double) stepNanos;
+    } else if (elapsed < sowNanos + TimeUnit.MILLISECONDS.toNanos(SWEEP_MILLIS)
+        && startSweep()) {
+      flightFraction =
+          (elapsed - sowNanos) / (double) TimeUnit.MILLISECONDS.toNanos(SWEEP_MILLIS);
+    } else {
+      finish();
+      if (!pending.isEmpty()) {
+        start(pending.poll());
+      } else {
+        timer.stop();
+      }
+      return;
+    }
+    repaintFlights();
+  }
+
+  /**
+   * Starts sweeping captured or leftover stones into the Mancalas, unless the move had none.
+   *
+   * @return whether there is a sweep to show
+   */
+  private boolean startSweep() {
+    if (isSweeping) {
+      return numFlights > 0;
+    }
+    isSweeping = true;
+    MancalaModel.Snapshot before = current.getBefore();
+    MancalaModel.Snapshot after = current.getAfter();
+    int aMancala = MancalaModel.A_MANCALA_POS;
+    int bMancala = MancalaModel.B_MANCALA_POS;
+    long delta = after.getDelta(before.getPly());
+    int ownMancala = MoveHistory.isPlayerA(delta) ? aMancala : bMancala;
+
+    // A capture takes the last stone and the pit opposite it, even when the game ends too
+    int landing = -1;
+    int opposite = -1;
+    if (MoveHistory.captured(delta) > 0) {
+      landing = path[(numStones - 1) % path.length];
+      opposite = bMancala - 1 - landing;
+    }
+    numFlights = 0;
+    for (int i = 0; i < shown.length; i++) {
+      if (after.getMarbles(i) < sown[i]) {
+        // Captures go to the mover's Mancala, leftover stones to their own side's
+        flightFrom[numFlights] = i;
+        if (i == landing || i == opposite) {
+          flightTo[numFlights] = ownMancala;
+        } else {
+          flightTo[numFlights] = i < aMancala ? aMancala : bMancala;
+        }
+        numFlights++;
+      }
+    }
+
+    // Empty the swept pits, and fill the Mancalas when the stones arrive
+    int[] board = sown.clone();
+    for (int k = 0; k < numFlights; k++) {
+      board[flightFrom[k]] = after.getMarbles(flightFrom[k]);
+    }
+    setShown(board);
+    return numFlights > 0;
+  }
+
+  /** Shows the end of the current move at once. */
+  private void finish() {
+    if (current == null) {
+      return;
+    }
+    repaintFlights();
+    numFlights = 0;
+    BoardChangeEvent e = current;
+    current = null;
+    show(e.getAfter());
+  }
+
+  /**
+   * Shows a state of the game without animation.
+   *
+   * @param snapshot the state
+   */
+  private void show(MancalaModel.Snapshot snapshot) {
+    int[] board = new int[MancalaModel.TOTAL_NUM_PITS];
+    for (int i = 0; i < board.length; i++) {
+      board[i] = snapshot.getMarbles(i);
+    }
+    setShown(board);
+  }
+
+  /**
+   * Changes the stones shown and repaints the pits that changed.
+   *
+   * @param board the stones to show in each pit
+   */
+  private void setShown(int[] board) {
+    for (int i = 0; i < shown.length; i++) {
+      if (shown[i] != board[i]) {
+        shown[i] = board[i];
+        boardPanel.repaintPit(i);
+      }
+    }
+  }
+
+  /** Repaints the part of the board the stones in flight cover. */
+  private void repaintFlights() {
+    if (numFlights == 0) {
+      return;
+    }
+    flightBounds.setBounds(0, 0, -1, -1);
+    for (int k = 0; k < numFlights; k++) {
+      flightBounds.add(boardPanel.getPitBounds(flightFrom[k]));
+      flightBounds.add(boardPanel.getPitBounds(flightTo[k]));
+    }
+    boardPanel.repaint(flightBounds);
+  }
+
+  /**
+   * Draws the stones in flight.
+   *
+   * @param g2 the graphics of the board
+   * @param marble the sprite of a marble
+   * @param marbleSize the diameter of a marble
+   */
+  public void paintFlights(Graphics2D g2, SpriteAtlas.Sprite marble, double marbleSize) {
+    for (int k = 0; k < numFlights; k++) {
+      Point2D.Double from = center(boardPanel.getPitBounds(flightFrom[k]));
+      Point2D.Double to = center(boardPanel.getPitBounds(flightTo[k]));
+      double x = from.x + (to.x - from.x) * flightFraction;
+      double y = from.y + (to.y - from.y) * flightFraction;
+      marble.draw(g2, x - marbleSize / 2, y - marbleSize / 2);
+    }
+  }
+
+  private static Point2D.Double center(Rectangle bounds) {
+    return new Point2D.Double(bounds.getCenterX(), bounds.getCenterY());
+  }
+}
@@ -0,0 +1,221 @@
+package ram;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Shape;
+import java.awt.Transparency;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Pre-rendered images of the marbles, pits and Mancalas of one {@link MancalaStyle}, so the board
+ * is painted by copying images instead of filling and stroking every shape. Each sprite is drawn
+ * once per size and display scale into an image compatible with the screen, which Java2D keeps in
+ * video memory where it can, and is drawn again only when the panels are resized, the scale
+ * changes or another style is used. Sprites must only be asked for on one thread at a time, which
+ * in the game is the event dispatch thread.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class SpriteAtlas {
+  // Enough for every size on the board across a few resizes
+  private static final int MAX_SPRITES = 64;
+
+  private static final Map<MancalaStyle, SpriteAtlas> ATLASES = new WeakHashMap<>();
+
+  private static final int MARBLE = 0;
+  private static final int PIT = 1;
+  private static final int MANCALA = 2;
+
+  private final MancalaStyle style;
+  private final Map<SpriteKey, Sprite> sprites =
+      new LinkedHashMap<SpriteKey, Sprite>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SpriteKey, Sprite> eldest) {
+          return size() > MAX_SPRITES;
+        }
+      };
+
+  private SpriteAtlas(MancalaStyle style) {
+    this.style = style;
+  }
+
+  /**
+   * Returns the atlas of a style, shared by every panel using it.
+   *
+   * @param style the style
+   * @return the style's atlas
+   */
+  public static synchronized SpriteAtlas forStyle(MancalaStyle style) {
+    return ATLASES.computeIfAbsent(style, SpriteAtlas::new);
+  }
+
+  /**
+   * Returns a marble.
+   *
+   * @param g the graphics the marble will be drawn on
+   * @param size the marble's diameter
+   * @return the sprite
+   */
+  public Sprite getMarble(Graphics2D g, double size) {
+    return get(g, MARBLE, size, size);
+  }
+
+  /**
+   * Returns an empty pit.
+   *
+   * @param g the graphics the pit will be drawn on
+   * @param width the pit's width
+   * @param height the pit's height
+   * @return the sprite
+   */
+  public Sprite getPit(Graphics2D g, double width, double height) {
+    return get(g, PIT, width, height);
+  }
+
+  /**
+   * Returns an empty Mancala.
+   *
+   * @param g the graphics the Mancala will be drawn on
+   * @param width the Mancala's width
+   * @param height the Mancala's height
+   * @return the sprite
+   */
+  public Sprite getMancala(Graphics2D g, double width, double height) {
+    return get(g, MANCALA, width, height);
+  }
+
+  private Sprite get(Graphics2D g, int kind, double width, double height) {
+    double scale = getScale(g);
+    SpriteKey key = new SpriteKey(kind, width, height, scale);
+    Sprite sprite = sprites.get(key);
+    if (sprite == null) {
+      sprite = render(g.getDeviceConfiguration(), key);
+      sprites.put(key, sprite);
+    }
+    return sprite;
+  }
+
+  private Sprite render(GraphicsConfiguration config, SpriteKey key) {
+    // Room for the half of the outline that lies outside the shape
+    double pad = Math.ceil(MancalaView.STROKE.getLineWidth() / 2) + 1;
+    int imageWidth = (int) Math.ceil((key.width + 2 * pad) * key.scale);
+    int imageHeight = (int) Math.ceil((key.height + 2 * pad) * key.scale);
+    BufferedImage image =
+        config.createCompatibleImage(
+            Math.max(imageWidth, 1), Math.max(imageHeight, 1), Transparency.TRANSLUCENT);
+
+    Shape shape;
+    if (key.kind == MANCALA) {
+      shape =
+          new RoundRectangle2D.Double(
+              pad, pad, key.width, key.height, key.width, (1f / 6f) * key.height);
+    } else {
+      shape = new Ellipse2D.Double(pad, pad, key.width, key.height);
+    }
+    Graphics2D g2 = image.createGraphics();
+    try {
+      g2.scale(key.scale, key.scale);
+      g2.setColor(key.kind == MARBLE ? style.getMarbleFillColor() : style.getPitFillColor());
+      g2.fill(shape);
+      g2.setStroke(MancalaView.STROKE);
+      g2.setColor(key.kind == MARBLE ? style.getMarbleDrawColor() : style.getPitDrawColor());
+      g2.draw(shape);
+    } finally {
+      g2.dispose();
+    }
+    return new Sprite(image, pad, key.scale);
+  }
+
+  /**
+   * Returns how many device pixels the graphics draws per unit.
+   *
+   * @param g the graphics
+   * @return the scale, 1 unless the display is scaled
+   */
+  public static double getScale(Graphics2D g) {
+    return g.getTransform().getScaleX();
+  }
+
+  /** An image of one shape at one size, drawn with its top left corner at the shape's. */
+  public static class Sprite {
+    private final BufferedImage image;
+    private final double pad;
+    private final double scale;
+    private final int width;
+    private final int height;
+
+    private Sprite(BufferedImage image, double pad, double scale) {
+      this.image = image;
+      this.pad = pad;
+      this.scale = scale;
+      width = (int) Math.round(image.getWidth() / scale);
+      height = (int) Math.round(image.getHeight() / scale);
+    }
+
+    /**
+     * Draws the shape.
+     *
+     * @param g the graphics to draw on, at the scale the sprite was made for
+     * @param x the left of the shape
+     * @param y the top of the shape
+     */
+    public void draw(Graphics2D g, double x, double y) {
+      int left = (int) Math.round(x - pad);
+      int top = (int) Math.round(y - pad);
+      if (scale == 1) {
+        g.drawImage(image, left, top, null);
+      } else {
+        g.drawImage(image, left, top, width, height, null);
+      }
+    }
+
+    /**
+     * Returns the display scale the sprite was made for.
+     *
+     * @return the scale
+     */
+    public double getScale() {
+      return scale;
+    }
+  }
+
+  /** What a sprite shows, at what size and scale. */
+  private static class SpriteKey {
+    final int kind;
+    final double width;
+    final double height;
+    final double scale;
+
+    SpriteKey(int kind, double width, double height, double scale) {
+      this.kind = kind;
+      this.width = width;
+      this.height = height;
+      this.scale = scale;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof SpriteKey)) {
+        return false;
+      }
+      SpriteKey other = (SpriteKey) o;
+      return kind == other.kind
+          && width == other.width
+          && height == other.height
+          && scale == other.scale;
+    }
+
+    @Override
+    public int hashCode() {
+      long bits =
+          31 * (31 * (31 * kind + Double.doubleToLongBits(width)) + Double.doubleToLongBits(height))
+              + Double.doubleToLongBits(scale);
+      return (int) (bits ^ bits >>> 32);
+    }
+  }
+}
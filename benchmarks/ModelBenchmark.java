@@ -0,0 +1,188 @@
+package ram;
+
+import ram.engine.BoardListener;
+import ram.engine.GameState;
+import ram.engine.MancalaModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+
+/**
+ * Throughput of the game rules: single moves, whole random games, game-over checks and listener
+ * dispatch, on both {@link MancalaModel} and the packed {@link GameState}. Run with {@code -prof
+ * gc} to see the allocation rate of each.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ModelBenchmark {
+  private static final int NUM_POSITIONS = 1024;
+
+  @Param({"3", "4"})
+  public int numStones;
+
+  private final long[] positions = new long[2 * NUM_POSITIONS];
+  private final int[] moves = new int[NUM_POSITIONS];
+  private final long[] out = new long[2];
+  private int next;
+
+  private SplittableRandom random;
+  private GameState[] starts;
+  private MancalaModel midGameModel;
+
+  /** A model with listeners attached, for measuring event dispatch. */
+  @State(Scope.Thread)
+  public static class Listeners {
+    @Param({"1", "8"})
+    public int numListeners;
+
+    public int events;
+    private MancalaModel model;
+
+    @Setup
+    public void setUp() {
+      model = new MancalaModel();
+      model.setUpMancalaBoard(4);
+      for (int i = 0; i < numListeners; i++) {
+        BoardListener listener = e -> events++;
+        model.attach(listener);
+      }
+    }
+  }
+
+  /** A variant board with many pits and stones, for measuring sowing cost. */
+  @State(Scope.Thread)
+  public static class VariantBoard {
+    @Param({"6", "24"})
+    public int numPitsPerPlayer;
+
+    @Param({"4", "100", "1000"})
+    public int numStonesPerPit;
+
+    private MancalaModel model;
+
+    @Setup
+    public void setUp() {
+      model = new MancalaModel(numPitsPerPlayer);
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    random = new SplittableRandom(42);
+    starts =
+        new GameState[] {GameState.initial(numStones, true), GameState.initial(numStones, false)};
+
+    // Positions from random games, each with a legal move to play
+    for (int i = 0; i < NUM_POSITIONS; i++) {
+      GameState state = GameState.initial(numStones, random.nextBoolean());
+      for (int ply = random.nextInt(20); ply > 0; ply--) {
+        GameState child = state.play(randomMove(state));
+        if (child.isGameOver()) {
+          break;
+        }
+        state = child;
+      }
+      positions[2 * i] = state.getLo();
+      positions[2 * i + 1] = state.getHi();
+      moves[i] = randomMove(state);
+    }
+
+    midGameModel = new MancalaModel();
+    midGameModel.setUpMancalaBoard(numStones);
+    for (int ply = 0; ply < 10 && !midGameModel.gameOver(); ply++) {
+      midGameModel.move(randomMove(midGameModel.getGameState()));
+    }
+  }
+
+  private int randomMove(GameState state) {
+    int move;
+    do {
+      move = random.nextInt(MancalaModel.B_MANCALA_POS);
+    } while (!state.isLegal(move));
+    return move;
+  }
+
+  /** One move on the packed state, without allocating. */
+  @Benchmark
+  public long gameStateMove() {
+    int i = next++ & (NUM_POSITIONS - 1);
+    GameState.play(positions[2 * i], positions[2 * i + 1], moves[i], out, 0);
+    return out[0] ^ out[1];
+  }
+
+  /** A whole game of random moves on the packed state. */
+  @Benchmark
+  public int gameStatePlayout() {
+    GameState start = starts[random.nextInt(2)];
+    long lo = start.getLo();
+    long hi = start.getHi();
+    while (!GameState.gameOver(lo, hi)) {
+      int first = GameState.isPlayerATurn(hi) ? 0 : MancalaModel.A_MANCALA_POS + 1;
+      int move = first + random.nextInt(MancalaModel.NUM_PITS_PER_PLAYER);
+      if (GameState.play(lo, hi, move, out, 0) != GameState.ILLEGAL) {
+        lo = out[0];
+        hi = out[1];
+      }
+    }
+    return GameState.stones(lo, hi, MancalaModel.A_MANCALA_POS);
+  }
+
+  /** A whole game of random moves through the model, including undo snapshots and events. */
+  @Benchmark
+  public int modelPlayout() {
+    MancalaModel model = new MancalaModel();
+    model.setUpMancalaBoard(numStones);
+    while (!model.gameOver()) {
+      int first = model.isPlayerATurn() ? 0 : MancalaModel.A_MANCALA_POS + 1;
+      model.move(first + random.nextInt(MancalaModel.NUM_PITS_PER_PLAYER));
+    }
+    return model.getWinner();
+  }
+
+  /** Game-over check from the side totals the model keeps up to date. */
+  @Benchmark
+  public boolean modelGameOver() {
+    return midGameModel.gameOver();
+  }
+
+  /** The same check by scanning both rows, as the model used to do on every call. */
+  @Benchmark
+  public boolean modelGameOverScan() {
+    int playerAStoneCount = 0;
+    int playerBStoneCount = 0;
+    for (int i = 0; i < MancalaModel.A_MANCALA_POS; i++) {
+      playerAStoneCount += midGameModel.getMarbles(i);
+    }
+    for (int i = MancalaModel.A_MANCALA_POS + 1; i < MancalaModel.B_MANCALA_POS; i++) {
+      playerBStoneCount += midGameModel.getMarbles(i);
+    }
+    return playerAStoneCount == 0 || playerBStoneCount == 0;
+  }
+
+  /** Sets up a variant board and sows the first pit of the player to move. */
+  @Benchmark
+  public int modelVariantMove(VariantBoard variant) {
+    MancalaModel model = variant.model;
+    model.setUpMancalaBoard(variant.numStonesPerPit);
+    model.move(model.isPlayerATurn() ? 0 : model.getAMancalaPos() + 1);
+    return model.getMarbles(model.getAMancalaPos());
+  }
+
+  /** Fires one change event to the attached listeners. */
+  @Benchmark
+  public void modelUpdateBoard(Listeners listeners) {
+    listeners.model.updateBoard();
+  }
+}
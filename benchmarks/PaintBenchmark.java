@@ -0,0 +1,130 @@
+package ram;
+
+import ram.engine.BoardChangeEvent;
+import ram.engine.MancalaModel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.JComponent;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Cost of painting the game offscreen into a {@link BufferedImage}: the whole board shown by {@link
+ * MancalaView}, only the pits one move changed, a single {@link PitPanel} and a single {@link
+ * MancalaPanel}. Runs headless, so it needs no display.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaintBenchmark {
+  @Param({"Ocean", "Forest", "Volcano"})
+  public String style;
+
+  @Param({"4", "12"})
+  public int numStones;
+
+  private BoardPanel boardPanel;
+  private JComponent[] changedPanels;
+  private PitPanel pitPanel;
+  private MancalaPanel mancalaPanel;
+  private BufferedImage image;
+  private Graphics2D g2;
+
+  @Setup
+  public void setUp() {
+    MancalaModel model = new MancalaModel();
+    model.setUpMancalaBoard(numStones);
+    MancalaStyle mancalaStyle = MancalaView.createStyle(style);
+
+    boardPanel = new BoardPanel(model, mancalaStyle, false);
+    boardPanel.setSize(boardPanel.getPreferredSize());
+    layOut(boardPanel);
+
+    // The panels an opening move repaints
+    BoardChangeEvent[] change = new BoardChangeEvent[1];
+    model.attach(e -> change[0] = e);
+    model.move(model.isPlayerATurn() ? 2 : MancalaModel.A_MANCALA_POS + 3);
+    List<JComponent> changed = new ArrayList<>();
+    for (int i = 0; i < MancalaModel.TOTAL_NUM_PITS; i++) {
+      if (change[0].isPitChanged(i)) {
+        changed.add(boardPanel.getPitPanel(i));
+      }
+    }
+    changedPanels = changed.toArray(new JComponent[0]);
+
+    pitPanel = new PitPanel(model, 0, true, mancalaStyle);
+    pitPanel.setSize(MancalaView.PIT_WIDTH, MancalaView.PIT_HEIGHT);
+
+    // Fill the Mancalas by playing a game to the end
+    MancalaModel finishedModel = new MancalaModel();
+    finishedModel.setUpMancalaBoard(numStones);
+    SplittableRandom random = new SplittableRandom(42);
+    while (!finishedModel.gameOver()) {
+      int first = finishedModel.isPlayerATurn() ? 0 : MancalaModel.A_MANCALA_POS + 1;
+      finishedModel.move(first + random.nextInt(MancalaModel.NUM_PITS_PER_PLAYER));
+    }
+    mancalaPanel = new MancalaPanel(finishedModel, true, mancalaStyle);
+    mancalaPanel.setSize(MancalaView.PIT_WIDTH, MancalaView.GAME_PANEL_HEIGHT);
+
+    image =
+        new BufferedImage(
+            boardPanel.getWidth(), boardPanel.getHeight(), BufferedImage.TYPE_INT_ARGB);
+    g2 = image.createGraphics();
+  }
+
+  /** Lays out a component tree that has no window to validate it. */
+  private static void layOut(Container container) {
+    container.doLayout();
+    for (Component child : container.getComponents()) {
+      if (child instanceof Container) {
+        layOut((Container) child);
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    g2.dispose();
+  }
+
+  @Benchmark
+  public BufferedImage paintBoard() {
+    boardPanel.paint(g2);
+    return image;
+  }
+
+  @Benchmark
+  public BufferedImage paintChangedPits() {
+    for (JComponent panel : changedPanels) {
+      panel.paint(g2);
+    }
+    return image;
+  }
+
+  @Benchmark
+  public BufferedImage paintPit() {
+    pitPanel.paint(g2);
+    return image;
+  }
+
+  @Benchmark
+  public BufferedImage paintMancala() {
+    mancalaPanel.paint(g2);
+    return image;
+  }
+}
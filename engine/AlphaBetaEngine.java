@@ -0,0 +1,388 @@
+package ram.engine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A computer player that searches the game tree with negamax alpha-beta over packed {@link
+ * GameState}s. It deepens iteratively, orders extra-turn moves first and caches results in a
+ * {@link TranspositionTable}. Positions and move lists live in arrays allocated once per engine, so
+ * the search itself does not allocate.
+ *
+ * <p>Scores are store differences from the side to move's point of view.
+ *
+ * <p>The time budget of a search is a hard deadline: the clock is read every {@value
+ * #CLOCK_CHECK_INTERVAL} nodes, and an iteration still running when the time is up unwinds at
+ * once without storing anything, leaving the move of the last iteration that completed.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class AlphaBetaEngine {
+  public static final int MAX_PLY = 64;
+  public static final int DEFAULT_TABLE_SIZE_LOG2 = 20;
+  static final int INFINITY = 10000;
+  static final int CLOCK_CHECK_INTERVAL = 1024;
+
+  private final TranspositionTable table;
+  private EndgameDatabase endgameDatabase;
+  private OpeningBook openingBook;
+  private final long[] stack = new long[2 * (MAX_PLY + 1)];
+  private final int[] moves = new int[MAX_PLY * MancalaModel.NUM_PITS_PER_PLAYER];
+
+  private long nodes;
+  private int completedDepth;
+  private int score;
+  private int bestMove = -1;
+  private int rootMove;
+  private boolean hitHorizon;
+  private long startNanos;
+  private long budgetNanos;
+  private boolean isTimed;
+  private boolean hitDeadline;
+  private long elapsedNanos;
+
+  /** Creates an engine with a transposition table of the default size. */
+  public AlphaBetaEngine() {
+    this(new TranspositionTable(DEFAULT_TABLE_SIZE_LOG2));
+  }
+
+  /**
+   * Creates an engine that uses the given transposition table.
+   *
+   * @param table the table to cache search results in
+   */
+  public AlphaBetaEngine(TranspositionTable table) {
+    this.table = table;
+  }
+
+  /**
+   * Sets the endgame database to take exact results from. Once a position is covered by it, the
+   * engine plays perfectly.
+   *
+   * @param endgameDatabase the database, or null to search every position
+   */
+  public void setEndgameDatabase(EndgameDatabase endgameDatabase) {
+    this.endgameDatabase = endgameDatabase;
+  }
+
+  /**
+   * Sets the opening book to take moves from. Positions in the book are played at once, with the
+   * book's move and the depth it was searched to, however deep a search was asked for.
+   *
+   * @param openingBook the book, or null to search every position
+   */
+  public void setOpeningBook(OpeningBook openingBook) {
+    this.openingBook = openingBook;
+  }
+
+  /**
+   * Finds the best move by iterative deepening. Each iteration searches one ply deeper than the
+   * last; no new iteration is started once half the time budget is used, since the next one would
+   * likely not finish in time, and one still running when the budget is used up is abandoned. The
+   * first iteration always completes, so a move is found however small the budget.
+   *
+   * @param state the position to move from
+   * @param maxDepth the deepest iteration to run
+   * @param timeBudgetMillis the wall-clock time the search may take
+   * @return the index of the best pit, or -1 if the game is over
+   */
+  public int findBestMove(GameState state, int maxDepth, long timeBudgetMillis) {
+    startNanos = System.nanoTime();
+    budgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+    hitDeadline = false;
+    int move = deepen(state, maxDepth);
+    isTimed = false;
+    elapsedNanos = System.nanoTime() - startNanos;
+    return move;
+  }
+
+  /**
+   * Runs the iterations of {@link #findBestMove(GameState, int, long)}.
+   *
+   * @param state the position to move from
+   * @param maxDepth the deepest iteration to run
+   * @return the index of the best pit, or -1 if the game is over
+   */
+  private int deepen(GameState state, int maxDepth) {
+    nodes = 0;
+    completedDepth = 0;
+    score = 0;
+    bestMove = -1;
+
+    // The database knows the result without searching, but keeps no move for the position itself
+    if (endgameDatabase != null
+        && !state.isGameOver()
+        && endgameDatabase.contains(state.getLo(), state.getHi())) {
+      score = endgameDatabase.score(state.getLo(), state.getHi());
+      bestMove = endgameDatabase.bestMove(state);
+      return bestMove;
+    }
+    int bookMove = openingBook == null ? -1 : openingBook.bestMove(state);
+    if (bookMove >= 0) {
+      score = openingBook.score(state);
+      completedDepth = openingBook.depth(state);
+      bestMove = bookMove;
+      return bestMove;
+    }
+
+    for (int depth = 1; depth <= Math.min(maxDepth, MAX_PLY); depth++) {
+      stack[0] = state.getLo();
+      stack[1] = state.getHi();
+      hitHorizon = false;
+      isTimed = depth > 1;
+      rootMove = -1;
+      int value = search(0, depth, -INFINITY, INFINITY);
+      if (hitDeadline) {
+        break;
+      }
+      score = value;
+      completedDepth = depth;
+      bestMove = rootMove;
+
+      // Every line reached the end of the game, so deeper iterations can't change the result
+      if (!hitHorizon || System.nanoTime() - startNanos > budgetNanos / 2) {
+        break;
+      }
+    }
+    return bestMove;
+  }
+
+  /**
+   * Searches a position to the given depth without deepening iteratively. Nodes are added to the
+   * count of the current search.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @param depth the depth to search to
+   * @param alpha the lower bound of the search window
+   * @param beta the upper bound of the search window
+   * @return the score from the side to move's point of view
+   */
+  int search(long lo, long hi, int depth, int alpha, int beta) {
+    stack[0] = lo;
+    stack[1] = hi;
+    hitHorizon = false;
+    isTimed = false;
+    hitDeadline = false;
+    rootMove = -1;
+    return search(0, depth, alpha, beta);
+  }
+
+  /**
+   * Searches the position at {@code stack[2 * ply]} to the given depth.
+   *
+   * @return the score from the side to move's point of view
+   */
+  private int search(int ply, int depth, int alpha, int beta) {
+    long lo = stack[2 * ply];
+    long hi = stack[2 * ply + 1];
+    nodes++;
+
+    // Read the clock now and then, and once the time is up unwind without storing anything
+    if (isTimed
+        && (nodes & (CLOCK_CHECK_INTERVAL - 1)) == 0
+        && System.nanoTime() - startNanos > budgetNanos) {
+      hitDeadline = true;
+    }
+    if (hitDeadline) {
+      return 0;
+    }
+
+    if (GameState.gameOver(lo, hi)) {
+      return evaluate(lo, hi);
+    }
+
+    // Near the end of the game, look up the result of perfect play
+    if (endgameDatabase != null && endgameDatabase.contains(lo, hi)) {
+      return endgameDatabase.score(lo, hi);
+    }
+    if (depth == 0 || ply == MAX_PLY) {
+      hitHorizon = true;
+      return evaluate(lo, hi);
+    }
+
+    // Use a cached result if it was searched deep enough, except at the root, whose move must come
+    // from this search: the table may hold an older, deeper entry there with another move
+    long key = TranspositionTable.hash(lo, hi);
+    long entry = table.probe(key);
+    int ttMove = -1;
+    if (entry != TranspositionTable.MISS) {
+      ttMove = TranspositionTable.move(entry);
+      if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+        int ttScore = TranspositionTable.score(entry);
+        int bound = TranspositionTable.bound(entry);
+        if (bound == TranspositionTable.EXACT
+            || (bound == TranspositionTable.LOWER_BOUND && ttScore >= beta)
+            || (bound == TranspositionTable.UPPER_BOUND && ttScore <= alpha)) {
+          // A cutoff hides the lines below, so assume they didn't end the game
+          hitHorizon = true;
+          return ttScore;
+        }
+      }
+    }
+
+    int first = ply * MancalaModel.NUM_PITS_PER_PLAYER;
+    int count = orderMoves(lo, hi, ttMove, moves, first);
+    int originalAlpha = alpha;
+    int bestScore = -INFINITY;
+    int bestMove = -1;
+    int child = 2 * (ply + 1);
+    for (int i = first; i < first + count; i++) {
+      int move = moves[i];
+      int flags = GameState.play(lo, hi, move, stack, child);
+      int value =
+          (flags & GameState.EXTRA_TURN) != 0
+              ? search(ply + 1, depth - 1, alpha, beta)
+              : -search(ply + 1, depth - 1, -beta, -alpha);
+      if (hitDeadline) {
+        return 0;
+      }
+
+      if (value > bestScore) {
+        bestScore = value;
+        bestMove = move;
+      }
+      if (value > alpha) {
+        alpha = value;
+      }
+      if (alpha >= beta) {
+        break;
+      }
+    }
+
+    int bound =
+        bestScore <= originalAlpha
+            ? TranspositionTable.UPPER_BOUND
+            : bestScore >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+    table.store(key, bestScore, depth, bound, bestMove);
+    if (ply == 0) {
+      rootMove = bestMove;
+    }
+    return bestScore;
+  }
+
+  /**
+   * Writes the legal moves of a position to {@code moves[first...]}: the table move, then moves
+   * whose last stone lands in the mover's Mancala (nearest the Mancala first, so the others stay
+   * valid), then the rest nearest the Mancala first.
+   *
+   * @return the number of moves written
+   */
+  static int orderMoves(long lo, long hi, int ttMove, int[] moves, int first) {
+    boolean isPlayerATurn = GameState.isPlayerATurn(hi);
+    int ownMancala = isPlayerATurn ? MancalaModel.A_MANCALA_POS : MancalaModel.B_MANCALA_POS;
+    int count = 0;
+
+    // The table move may come from a colliding key, so check that it is playable here
+    if (ttMove < ownMancala - MancalaModel.NUM_PITS_PER_PLAYER
+        || ttMove >= ownMancala
+        || GameState.stones(lo, hi, ttMove) == 0) {
+      ttMove = -1;
+    } else {
+      moves[first + count++] = ttMove;
+    }
+    for (int pit = ownMancala - 1; pit >= ownMancala - MancalaModel.NUM_PITS_PER_PLAYER; pit--) {
+      int stones = GameState.stones(lo, hi, pit);
+      if (pit != ttMove && stones % (MancalaModel.TOTAL_NUM_PITS - 1) == ownMancala - pit) {
+        moves[first + count++] = pit;
+      }
+    }
+    for (int pit = ownMancala - 1; pit >= ownMancala - MancalaModel.NUM_PITS_PER_PLAYER; pit--) {
+      int stones = GameState.stones(lo, hi, pit);
+      if (pit != ttMove
+          && stones > 0
+          && stones % (MancalaModel.TOTAL_NUM_PITS - 1) != ownMancala - pit) {
+        moves[first + count++] = pit;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the store difference from the side to move's point of view.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return the static score of the position
+   */
+  static int evaluate(long lo, long hi) {
+    int difference =
+        GameState.stones(lo, hi, MancalaModel.A_MANCALA_POS)
+            - GameState.stones(lo, hi, MancalaModel.B_MANCALA_POS);
+    return GameState.isPlayerATurn(hi) ? difference : -difference;
+  }
+
+  /**
+   * Returns whether the last search stopped at its depth limit anywhere, rather than following
+   * every line to the end of the game.
+   *
+   * @return whether a deeper search could change the result
+   */
+  boolean hasHitHorizon() {
+    return hitHorizon;
+  }
+
+  /**
+   * Returns the best move found at the root by the last call to {@link
+   * #search(long, long, int, int, int)}.
+   *
+   * @return the index of the pit, or -1 if the search was cut short or the position had no moves
+   */
+  int getRootMove() {
+    return rootMove;
+  }
+
+  /**
+   * Returns whether the last search ran out of time and abandoned an iteration.
+   *
+   * @return whether a deeper iteration was cut short
+   */
+  public boolean hasHitDeadline() {
+    return hitDeadline;
+  }
+
+  /**
+   * Returns the wall-clock time of the last search.
+   *
+   * @return the elapsed time in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the number of positions visited by the last search.
+   *
+   * @return the node count
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the depth of the last iteration the last search completed.
+   *
+   * @return the completed depth
+   */
+  public int getCompletedDepth() {
+    return completedDepth;
+  }
+
+  /**
+   * Returns the move of the last iteration the last search completed, or the move taken from the
+   * opening book or endgame database.
+   *
+   * @return the index of the pit, or -1 if the game was over
+   */
+  public int getBestMove() {
+    return bestMove;
+  }
+
+  /**
+   * Returns the score of the last search from the mover's point of view.
+   *
+   * @return the store difference expected with best play
+   */
+  public int getScore() {
+    return score;
+  }
+}
@@ -0,0 +1,29 @@
+package ram.engine;
+
+/**
+ * A class which defines a concrete strategy for the Strategy pattern. In this case, it plays the
+ * move an {@link AlphaBetaEngine} finds at a fixed depth.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class AlphaBetaPolicy implements MovePolicy {
+  private static final int TABLE_SIZE_LOG2 = 16;
+
+  private final AlphaBetaEngine engine;
+  private final int depth;
+
+  /**
+   * Creates an alpha-beta policy.
+   *
+   * @param depth the depth to search every move to
+   */
+  public AlphaBetaPolicy(int depth) {
+    engine = new AlphaBetaEngine(new TranspositionTable(TABLE_SIZE_LOG2));
+    this.depth = depth;
+  }
+
+  @Override
+  public int chooseMove(long lo, long hi) {
+    return engine.findBestMove(GameState.of(lo, hi), depth, Long.MAX_VALUE);
+  }
+}
@@ -0,0 +1,60 @@
+package ram.engine;
+
+import java.util.EventObject;
+
+/**
+ * The event a {@link MancalaModel} sends its {@link BoardListener}s when the game changes. Besides
+ * the model, it carries the snapshots from before and after the change, so listeners can tell
+ * which pits changed and only redraw those.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class BoardChangeEvent extends EventObject {
+  private static final long serialVersionUID = 1L;
+
+  private final transient MancalaModel.Snapshot before;
+  private final transient MancalaModel.Snapshot after;
+
+  /**
+   * Creates an event for a change.
+   *
+   * @param source the model that changed
+   * @param before the snapshot replaced, or null if anything may have changed
+   * @param after the snapshot published
+   */
+  public BoardChangeEvent(
+      MancalaModel source, MancalaModel.Snapshot before, MancalaModel.Snapshot after) {
+    super(source);
+    this.before = before;
+    this.after = after;
+  }
+
+  /**
+   * Returns the state of the game before the change.
+   *
+   * @return the snapshot replaced, or null if anything may have changed
+   */
+  public MancalaModel.Snapshot getBefore() {
+    return before;
+  }
+
+  /**
+   * Returns the state of the game after the change. Other changes may have followed by the time
+   * the event is handled.
+   *
+   * @return the snapshot published
+   */
+  public MancalaModel.Snapshot getAfter() {
+    return after;
+  }
+
+  /**
+   * Returns whether the number of stones in a pit changed.
+   *
+   * @param index the index of the pit
+   * @return whether the pit changed, always true if the earlier snapshot is not known
+   */
+  public boolean isPitChanged(int index) {
+    return before == null || before.getMarbles(index) != after.getMarbles(index);
+  }
+}
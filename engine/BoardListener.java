@@ -0,0 +1,18 @@
+package ram.engine;
+
+import java.util.EventListener;
+
+/**
+ * Listens to the changes of a {@link MancalaModel}. Unlike Swing's listeners it needs nothing from
+ * the desktop modules, so the model can run without them.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public interface BoardListener extends EventListener {
+  /**
+   * Called after every move, undo or other change of the game, on the thread that made it.
+   *
+   * @param e the change
+   */
+  void boardChanged(BoardChangeEvent e);
+}
@@ -0,0 +1,180 @@
+package ram.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds an {@link EndgameDatabase} file. Positions are solved layer by layer, in increasing number
+ * of stones in play: a move never adds stones to the pits, so every successor is either in a layer
+ * that is already solved or in the same layer. Same-layer successors come from moves that don't
+ * reach a Mancala, which always carry stones closer to their owner's Mancala, so they can't form a
+ * cycle and are solved on demand. Each layer is split across the cores of a {@link ForkJoinPool}.
+ *
+ * <p>The stone limit sets the size of the file, {@code C(maxStones + 12, 12)} bytes, and the
+ * time it takes to build.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class EndgameBuilder {
+  private static final byte UNKNOWN = Byte.MIN_VALUE;
+  private static final int MIN_TASK_SIZE = 4096;
+
+  private final int maxStones;
+  private final byte[] values;
+  private final ForkJoinPool pool;
+
+  /**
+   * Creates a builder.
+   *
+   * @param maxStones the most stones in play to cover, at most 25
+   * @param threads the number of threads to solve with
+   */
+  public EndgameBuilder(int maxStones, int threads) {
+    if (maxStones < 0
+        || EndgameDatabase.size(maxStones) > Integer.MAX_VALUE - EndgameDatabase.HEADER_SIZE) {
+      throw new IllegalArgumentException("Can't build a database for " + maxStones + " stones");
+    }
+    this.maxStones = maxStones;
+    values = new byte[(int) EndgameDatabase.size(maxStones)];
+    pool = new ForkJoinPool(threads);
+  }
+
+  /** Solves every position, one layer of stones in play at a time. */
+  public void solve() {
+    Arrays.fill(values, UNKNOWN);
+    for (int stones = 0; stones <= maxStones; stones++) {
+      int from = (int) EndgameDatabase.layerStart(stones);
+      int to = (int) EndgameDatabase.layerStart(stones + 1);
+      pool.invoke(new SolveRange(stones, from, to));
+    }
+    pool.shutdown();
+  }
+
+  /**
+   * Writes the solved database.
+   *
+   * @param file the file to write
+   * @throws IOException if the file can't be written
+   */
+  public void write(Path file) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(EndgameDatabase.HEADER_SIZE);
+    header.putLong(EndgameDatabase.MAGIC).putInt(EndgameDatabase.VERSION).putInt(maxStones).flip();
+    try (FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      channel.write(header);
+      ByteBuffer body = ByteBuffer.wrap(values);
+      while (body.hasRemaining()) {
+        channel.write(body);
+      }
+    }
+  }
+
+  /**
+   * Solves one position, and any unsolved same-layer positions it leads to.
+   *
+   * @return the stones in play the side to move wins minus those the opponent wins
+   */
+  private int solve(int index, int stones, long[] scratch) {
+    int value = values[index];
+    if (value != UNKNOWN) {
+      return value;
+    }
+
+    EndgameDatabase.unindex(index, stones, scratch);
+    long lo = scratch[0];
+    long hi = scratch[1];
+    int best = 0; // a finished game has nothing left to win
+    if (!GameState.gameOver(lo, hi)) {
+      best = Integer.MIN_VALUE;
+      for (int pit = 0; pit < MancalaModel.B_MANCALA_POS; pit++) {
+        int flags = GameState.play(lo, hi, pit, scratch, 0);
+        if (flags == GameState.ILLEGAL) {
+          continue;
+        }
+
+        // Stones the move put in the Mancalas, then whatever is left to win after it
+        long childLo = scratch[0];
+        long childHi = scratch[1];
+        int gained = AlphaBetaEngine.evaluate(childLo, childHi);
+        int rest = 0;
+        if ((flags & GameState.GAME_OVER) == 0) {
+          int childStones = EndgameDatabase.stonesInPlay(childLo, childHi);
+          rest =
+              solve(
+                  (int) EndgameDatabase.index(childLo, childHi),
+                  childStones,
+                  childStones == stones ? new long[2] : scratch);
+        }
+        int total = gained + rest;
+        int result = (flags & GameState.EXTRA_TURN) != 0 ? total : -total;
+        if (result > best) {
+          best = result;
+        }
+      }
+    }
+    values[index] = (byte) best;
+    return best;
+  }
+
+  /** Solves a range of one layer, splitting it across threads. */
+  @SuppressWarnings("serial")
+  private class SolveRange extends RecursiveAction {
+    final int stones;
+    final int from;
+    final int to;
+
+    SolveRange(int stones, int from, int to) {
+      this.stones = stones;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > MIN_TASK_SIZE) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new SolveRange(stones, from, middle), new SolveRange(stones, middle, to));
+        return;
+      }
+      long[] scratch = new long[2];
+      for (int index = from; index < to; index++) {
+        solve(index, stones, scratch);
+      }
+    }
+  }
+
+  /**
+   * Builds a database and writes it to a file.
+   *
+   * @param args the stone limit, then optionally the file name and thread count
+   * @throws IOException if the file can't be written
+   */
+  public static void main(String[] args) throws IOException {
+    int maxStones = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+    Path file = Paths.get(args.length > 1 ? args[1] : EndgameDatabase.DEFAULT_FILE_NAME);
+    int threads =
+        args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+    long start = System.currentTimeMillis();
+    EndgameBuilder builder = new EndgameBuilder(maxStones, threads);
+    builder.solve();
+    builder.write(file);
+    System.out.printf(
+        "Solved %d positions with up to %d stones in play in %d ms, wrote %s%n",
+        EndgameDatabase.size(maxStones),
+        maxStones,
+        System.currentTimeMillis() - start,
+        file);
+  }
+}
@@ -0,0 +1,245 @@
+package ram.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An endgame database built by {@link EndgameBuilder} and read through a memory-mapped file. It
+ * holds the exact result with perfect play of every position with up to {@link #getMaxStones()}
+ * stones left in the pits, for either side to move, so lookups are a single byte read.
+ *
+ * <p>Only the stones still in play matter for how the rest of the game goes, so a position's entry
+ * is the number of those stones the side to move ends up with minus the number the opponent ends up
+ * with. That is the same for a position and its mirror, so only the {@linkplain
+ * GameState#canonicalLo(long, long) canonical form}, with player A to move, is stored. Positions
+ * are numbered by stones in play, then by the combinatorial rank of how the stones are spread over
+ * the 12 pits.
+ *
+ * <p>File layout: the 8-byte {@link #MAGIC}, the int format {@link #VERSION}, the int stone limit,
+ * then one signed byte per position.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class EndgameDatabase {
+  public static final long MAGIC = 0x4D4E434C45474442L; // "MNCLEGDB"
+  public static final int VERSION = 2;
+  public static final int HEADER_SIZE = 16;
+  public static final String DEFAULT_FILE_NAME = "endgame.db";
+
+  static final int NUM_PITS = 2 * MancalaModel.NUM_PITS_PER_PLAYER;
+  private static final int MAX_N = 160;
+  private static final long[][] BINOMIAL = new long[MAX_N + 1][NUM_PITS + 1];
+
+  static {
+    for (int n = 0; n <= MAX_N; n++) {
+      BINOMIAL[n][0] = 1;
+      for (int k = 1; k <= Math.min(n, NUM_PITS); k++) {
+        BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+      }
+    }
+  }
+
+  private final ByteBuffer values;
+  private final int maxStones;
+
+  private EndgameDatabase(ByteBuffer values, int maxStones) {
+    this.values = values;
+    this.maxStones = maxStones;
+  }
+
+  /**
+   * Maps a database file into memory.
+   *
+   * @param file the file written by {@link EndgameBuilder}
+   * @return the database
+   * @throws IOException if the file can't be read or is not a database
+   */
+  public static EndgameDatabase open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.limit() < HEADER_SIZE || buffer.getLong(0) != MAGIC) {
+        throw new IOException(file + " is not an endgame database");
+      }
+      if (buffer.getInt(8) != VERSION) {
+        throw new IOException(file + " is in an older format, so it must be built again");
+      }
+      int maxStones = buffer.getInt(12);
+      if (buffer.limit() != HEADER_SIZE + size(maxStones)) {
+        throw new IOException(file + " is truncated");
+      }
+      return new EndgameDatabase(buffer, maxStones);
+    }
+  }
+
+  /**
+   * Returns the number of entries in a database with the given stone limit.
+   *
+   * @param maxStones the most stones in play covered
+   * @return the number of positions with player A to move
+   */
+  public static long size(int maxStones) {
+    return BINOMIAL[maxStones + NUM_PITS][NUM_PITS];
+  }
+
+  /**
+   * Returns the most stones in play covered by this database.
+   *
+   * @return the stone limit
+   */
+  public int getMaxStones() {
+    return maxStones;
+  }
+
+  /**
+   * Returns whether a position is covered by this database.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return whether there are few enough stones in play
+   */
+  public boolean contains(long lo, long hi) {
+    return stonesInPlay(lo, hi) <= maxStones;
+  }
+
+  /**
+   * Returns how many more of the stones in play the side to move wins than the opponent with
+   * perfect play.
+   *
+   * @param lo pits 0-6 of a position this database {@link #contains(long, long)}
+   * @param hi pits 7-13 and the turn bit
+   * @return the difference in stones still to be won
+   */
+  public int value(long lo, long hi) {
+    return values.get(HEADER_SIZE + (int) index(lo, hi));
+  }
+
+  /**
+   * Returns the final store difference with perfect play, from the side to move's point of view.
+   *
+   * @param lo pits 0-6 of a position this database {@link #contains(long, long)}
+   * @param hi pits 7-13 and the turn bit
+   * @return the final store difference
+   */
+  public int score(long lo, long hi) {
+    return AlphaBetaEngine.evaluate(lo, hi) + value(lo, hi);
+  }
+
+  /**
+   * Returns a perfect move.
+   *
+   * @param state a position this database {@link #contains(long, long)}
+   * @return the index of the best pit, or -1 if the game is over
+   */
+  public int bestMove(GameState state) {
+    long[] child = new long[2];
+    int bestMove = -1;
+    int bestScore = Integer.MIN_VALUE;
+    for (int pit = 0; pit < MancalaModel.B_MANCALA_POS; pit++) {
+      int flags = GameState.play(state.getLo(), state.getHi(), pit, child, 0);
+      if (flags == GameState.ILLEGAL) {
+        continue;
+      }
+      int childScore =
+          (flags & GameState.GAME_OVER) != 0
+              ? AlphaBetaEngine.evaluate(child[0], child[1])
+              : score(child[0], child[1]);
+      int value = (flags & GameState.EXTRA_TURN) != 0 ? childScore : -childScore;
+      if (value > bestScore) {
+        bestScore = value;
+        bestMove = pit;
+      }
+    }
+    return bestMove;
+  }
+
+  /**
+   * Returns the number of stones left in both rows.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return the stones in play
+   */
+  static int stonesInPlay(long lo, long hi) {
+    return GameState.rowSum(lo) + GameState.rowSum(hi);
+  }
+
+  /**
+   * Returns the position number of a packed state, ignoring its Mancalas. A position and its
+   * mirror have the same number.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return the index of the position's entry
+   */
+  static long index(long lo, long hi) {
+    long canonicalLo = GameState.canonicalLo(lo, hi);
+    hi = GameState.canonicalHi(lo, hi);
+    lo = canonicalLo;
+
+    // The stones and the 11 walls between the 12 pits fill s + 11 slots; rank the wall positions
+    int wall = -1;
+    long rank = 0;
+    for (int i = 0; i < NUM_PITS - 1; i++) {
+      wall += 1 + GameState.stones(lo, hi, pit(i));
+      rank += BINOMIAL[wall][i + 1];
+    }
+    int stones = wall - (NUM_PITS - 1) + 1 + GameState.stones(lo, hi, pit(NUM_PITS - 1));
+    long offset = stones == 0 ? 0 : BINOMIAL[stones - 1 + NUM_PITS][NUM_PITS];
+    return offset + rank;
+  }
+
+  /**
+   * Returns the packed position with the given number, with empty Mancalas and player A to move.
+   *
+   * @param index the index of the entry
+   * @param stones the number of stones in play at that index
+   * @param out the array receiving {@code lo} and {@code hi}
+   */
+  static void unindex(long index, int stones, long[] out) {
+    long rank = index - (stones == 0 ? 0 : BINOMIAL[stones - 1 + NUM_PITS][NUM_PITS]);
+    long lo = 0;
+    long hi = GameState.A_TURN_BIT;
+
+    // Find the walls from the last one down, then the stones between them
+    int next = stones + NUM_PITS - 1;
+    for (int i = NUM_PITS - 2; i >= -1; i--) {
+      int wall = -1;
+      if (i >= 0) {
+        wall = i;
+        while (BINOMIAL[wall + 1][i + 1] <= rank) {
+          wall++;
+        }
+        rank -= BINOMIAL[wall][i + 1];
+      }
+      int pit = pit(i + 1);
+      long count = next - wall - 1;
+      if (pit < GameState.LANES_PER_WORD) {
+        lo |= count << (pit * GameState.LANE_BITS);
+      } else {
+        hi |= count << ((pit - GameState.LANES_PER_WORD) * GameState.LANE_BITS);
+      }
+      next = wall;
+    }
+    out[0] = lo;
+    out[1] = hi;
+  }
+
+  /**
+   * Returns the offset of the first entry with the given number of stones in play.
+   *
+   * @param stones the number of stones in play
+   * @return the index of the layer's first entry
+   */
+  static long layerStart(int stones) {
+    return stones == 0 ? 0 : size(stones - 1);
+  }
+
+  /** Maps the i-th of the 12 pits to its board index, skipping player A's Mancala. */
+  private static int pit(int i) {
+    return i < MancalaModel.NUM_PITS_PER_PLAYER ? i : i + 1;
+  }
+}
@@ -0,0 +1,409 @@
+package ram.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what happens in every game played by any {@link MancalaModel} in this process: moves,
+ * captures, extra turns, undos, redos, finished games, their length and who won. Models made to
+ * replay or analyze games are not counted. The counters are striped {@link LongAdder}s, so models
+ * moving on many threads at once don't contend on them, and each move, undo, redo and finished game
+ * is also a JFR event, which costs next to nothing unless a flight recording is running.
+ *
+ * <p>{@link #getCounts()} reads every total at once for dashboards, and {@link #install()}
+ * publishes them as the MXBean {@value #OBJECT_NAME}.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class GameMetrics implements GameMetricsMXBean {
+  public static final String OBJECT_NAME = "ram:type=GameMetrics";
+
+  private static final GameMetrics INSTANCE = new GameMetrics();
+
+  private final LongAdder moves = new LongAdder();
+  private final LongAdder captures = new LongAdder();
+  private final LongAdder extraTurns = new LongAdder();
+  private final LongAdder undos = new LongAdder();
+  private final LongAdder redos = new LongAdder();
+  private final LongAdder[] winners = {new LongAdder(), new LongAdder(), new LongAdder()};
+  private final LongAdder gamePlies = new LongAdder();
+  private final LongAccumulator maxGamePlies = new LongAccumulator(Math::max, 0);
+
+  private GameMetrics() {}
+
+  /**
+   * Returns the totals of this process.
+   *
+   * @return the only instance
+   */
+  public static GameMetrics get() {
+    return INSTANCE;
+  }
+
+  /** Publishes the totals over JMX, unless that was done already. */
+  public synchronized void install() {
+    try {
+      ObjectName name = new ObjectName(OBJECT_NAME);
+      if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+      }
+    } catch (InstanceAlreadyExistsException ex) {
+      // Another class loader published its own
+    } catch (JMException ex) {
+      throw new IllegalStateException("Can't publish " + OBJECT_NAME, ex);
+    }
+  }
+
+  /**
+   * Records a move.
+   *
+   * @param event the move's event, begun before the move was played
+   * @param before the game before the move
+   * @param after the game after the move
+   * @param delta the move as a {@link MoveHistory} delta
+   */
+  static void movePlayed(
+      MoveEvent event, MancalaModel.Snapshot before, MancalaModel.Snapshot after, long delta) {
+    boolean isPlayerA = MoveHistory.isPlayerA(delta);
+    int captured = MoveHistory.captured(delta);
+    boolean isExtraTurn = !after.gameOver() && after.isPlayerATurn() == isPlayerA;
+    INSTANCE.moves.increment();
+    if (captured > 0) {
+      INSTANCE.captures.increment();
+    }
+    if (isExtraTurn) {
+      INSTANCE.extraTurns.increment();
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.pit = MoveHistory.pit(delta);
+      event.playerA = isPlayerA;
+      event.stones = MoveHistory.stones(delta);
+      event.captured = captured;
+      event.extraTurn = isExtraTurn;
+      event.ply = before.getPly();
+      event.commit();
+    }
+
+    if (after.gameOver()) {
+      int winner = after.getWinner();
+      INSTANCE.winners[winner].increment();
+      INSTANCE.gamePlies.add(after.getPly());
+      INSTANCE.maxGamePlies.accumulate(after.getPly());
+      GameOverEvent gameOver = new GameOverEvent();
+      if (gameOver.shouldCommit()) {
+        gameOver.plies = after.getPly();
+        gameOver.winner =
+            winner == MancalaModel.TIE ? "tie" : winner == MancalaModel.A_WINNER ? "A" : "B";
+        gameOver.playerAStones = after.getMarbles(MancalaModel.A_MANCALA_POS);
+        gameOver.playerBStones = after.getMarbles(MancalaModel.B_MANCALA_POS);
+        gameOver.commit();
+      }
+    }
+  }
+
+  /**
+   * Records an undo.
+   *
+   * @param after the game after the undo
+   */
+  static void moveUndone(MancalaModel.Snapshot after) {
+    INSTANCE.undos.increment();
+    UndoEvent event = new UndoEvent();
+    if (event.shouldCommit()) {
+      event.ply = after.getPly();
+      event.undoRemaining = after.getUndoRemaining();
+      event.commit();
+    }
+  }
+
+  /**
+   * Records a redo, which is not counted as a move or as the end of a game again.
+   *
+   * @param after the game after the redo
+   */
+  static void moveRedone(MancalaModel.Snapshot after) {
+    INSTANCE.redos.increment();
+    RedoEvent event = new RedoEvent();
+    if (event.shouldCommit()) {
+      event.ply = after.getPly();
+      event.commit();
+    }
+  }
+
+  @Override
+  public long getMoves() {
+    return moves.sum();
+  }
+
+  @Override
+  public long getCaptures() {
+    return captures.sum();
+  }
+
+  @Override
+  public long getExtraTurns() {
+    return extraTurns.sum();
+  }
+
+  @Override
+  public long getUndos() {
+    return undos.sum();
+  }
+
+  @Override
+  public long getRedos() {
+    return redos.sum();
+  }
+
+  @Override
+  public long getGamesFinished() {
+    return getPlayerAWins() + getPlayerBWins() + getTies();
+  }
+
+  @Override
+  public long getPlayerAWins() {
+    return winners[MancalaModel.A_WINNER].sum();
+  }
+
+  @Override
+  public long getPlayerBWins() {
+    return winners[MancalaModel.B_WINNER].sum();
+  }
+
+  @Override
+  public long getTies() {
+    return winners[MancalaModel.TIE].sum();
+  }
+
+  @Override
+  public double getMeanGamePlies() {
+    long games = getGamesFinished();
+    return games == 0 ? 0 : gamePlies.sum() / (double) games;
+  }
+
+  @Override
+  public long getMaxGamePlies() {
+    return maxGamePlies.get();
+  }
+
+  @Override
+  public Counts getCounts() {
+    return new Counts(
+        getMoves(),
+        getCaptures(),
+        getExtraTurns(),
+        getUndos(),
+        getRedos(),
+        getPlayerAWins(),
+        getPlayerBWins(),
+        getTies(),
+        gamePlies.sum(),
+        getMaxGamePlies());
+  }
+
+  @Override
+  public void reset() {
+    moves.reset();
+    captures.reset();
+    extraTurns.reset();
+    undos.reset();
+    redos.reset();
+    for (LongAdder winner : winners) {
+      winner.reset();
+    }
+    gamePlies.reset();
+    maxGamePlies.reset();
+  }
+
+  /**
+   * The totals at one moment. Games still being played while they are read may be counted in some
+   * totals and not yet in others.
+   */
+  public static class Counts {
+    private final long moves;
+    private final long captures;
+    private final long extraTurns;
+    private final long undos;
+    private final long redos;
+    private final long playerAWins;
+    private final long playerBWins;
+    private final long ties;
+    private final long gamePlies;
+    private final long maxGamePlies;
+
+    Counts(
+        long moves,
+        long captures,
+        long extraTurns,
+        long undos,
+        long redos,
+        long playerAWins,
+        long playerBWins,
+        long ties,
+        long gamePlies,
+        long maxGamePlies) {
+      this.moves = moves;
+      this.captures = captures;
+      this.extraTurns = extraTurns;
+      this.undos = undos;
+      this.redos = redos;
+      this.playerAWins = playerAWins;
+      this.playerBWins = playerBWins;
+      this.ties = ties;
+      this.gamePlies = gamePlies;
+      this.maxGamePlies = maxGamePlies;
+    }
+
+    /** Returns the number of moves played. */
+    public long getMoves() {
+      return moves;
+    }
+
+    /** Returns the number of moves that captured stones. */
+    public long getCaptures() {
+      return captures;
+    }
+
+    /** Returns the number of moves that earned another turn. */
+    public long getExtraTurns() {
+      return extraTurns;
+    }
+
+    /** Returns the number of moves taken back. */
+    public long getUndos() {
+      return undos;
+    }
+
+    /** Returns the number of undone moves played again. */
+    public long getRedos() {
+      return redos;
+    }
+
+    /** Returns the number of finished games player A won. */
+    public long getPlayerAWins() {
+      return playerAWins;
+    }
+
+    /** Returns the number of finished games player B won. */
+    public long getPlayerBWins() {
+      return playerBWins;
+    }
+
+    /** Returns the number of finished games that were tied. */
+    public long getTies() {
+      return ties;
+    }
+
+    /** Returns the number of games played to the end. */
+    public long getGamesFinished() {
+      return playerAWins + playerBWins + ties;
+    }
+
+    /** Returns the number of moves in all finished games together. */
+    public long getGamePlies() {
+      return gamePlies;
+    }
+
+    /** Returns the most moves in a finished game. */
+    public long getMaxGamePlies() {
+      return maxGamePlies;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%d moves, %d captures, %d extra turns, %d undos, %d redos, %d games (A %d, B %d, "
+              + "tie %d), %.1f plies per game, longest %d",
+          moves,
+          captures,
+          extraTurns,
+          undos,
+          redos,
+          getGamesFinished(),
+          playerAWins,
+          playerBWins,
+          ties,
+          getGamesFinished() == 0 ? 0 : gamePlies / (double) getGamesFinished(),
+          maxGamePlies);
+    }
+  }
+
+  /** A move played on a {@link MancalaModel}. */
+  @Name("ram.Move")
+  @Label("Move")
+  @Category({"Mancala", "Game"})
+  @Description("A move played on a model")
+  static class MoveEvent extends Event {
+    @Label("Pit")
+    int pit;
+
+    @Label("Player A")
+    boolean playerA;
+
+    @Label("Stones")
+    int stones;
+
+    @Label("Captured")
+    @Description("The stones taken from the opposite pit, or 0")
+    int captured;
+
+    @Label("Extra Turn")
+    boolean extraTurn;
+
+    @Label("Ply")
+    @Description("The number of moves played before this one")
+    int ply;
+  }
+
+  /** A move taken back on a {@link MancalaModel}. */
+  @Name("ram.Undo")
+  @Label("Undo")
+  @Category({"Mancala", "Game"})
+  static class UndoEvent extends Event {
+    @Label("Ply")
+    @Description("The number of moves played after the undo")
+    int ply;
+
+    @Label("Undos Remaining")
+    int undoRemaining;
+  }
+
+  /** Undone moves played again on a {@link MancalaModel}. */
+  @Name("ram.Redo")
+  @Label("Redo")
+  @Category({"Mancala", "Game"})
+  static class RedoEvent extends Event {
+    @Label("Ply")
+    @Description("The number of moves played after the redo")
+    int ply;
+  }
+
+  /** A game played to the end on a {@link MancalaModel}. */
+  @Name("ram.GameOver")
+  @Label("Game Over")
+  @Category({"Mancala", "Game"})
+  static class GameOverEvent extends Event {
+    @Label("Plies")
+    int plies;
+
+    @Label("Winner")
+    String winner;
+
+    @Label("Player A Stones")
+    int playerAStones;
+
+    @Label("Player B Stones")
+    int playerBStones;
+  }
+}
@@ -0,0 +1,48 @@
+package ram.engine;
+
+/**
+ * Totals of every game played by any {@link MancalaModel} in this process, as published over JMX
+ * by {@link GameMetrics}.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public interface GameMetricsMXBean {
+  /** Returns the number of moves played. */
+  long getMoves();
+
+  /** Returns the number of moves that captured stones. */
+  long getCaptures();
+
+  /** Returns the number of moves that ended in the mover's Mancala and earned another turn. */
+  long getExtraTurns();
+
+  /** Returns the number of moves taken back. */
+  long getUndos();
+
+  /** Returns the number of undone moves played again, which {@link #getMoves()} doesn't count. */
+  long getRedos();
+
+  /** Returns the number of games played to the end. */
+  long getGamesFinished();
+
+  /** Returns the number of finished games player A won. */
+  long getPlayerAWins();
+
+  /** Returns the number of finished games player B won. */
+  long getPlayerBWins();
+
+  /** Returns the number of finished games that were tied. */
+  long getTies();
+
+  /** Returns the mean number of moves in a finished game. */
+  double getMeanGamePlies();
+
+  /** Returns the most moves in a finished game. */
+  long getMaxGamePlies();
+
+  /** Returns all the totals, read at once. */
+  GameMetrics.Counts getCounts();
+
+  /** Sets every total back to 0. */
+  void reset();
+}
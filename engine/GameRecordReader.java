@@ -0,0 +1,281 @@
+package ram.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads an archive of games written by {@link GameRecordWriter} through a memory-mapped file, one
+ * game at a time, so archives of any number of games replay without loading them. The file is
+ * mapped in windows of up to {@link #WINDOW_SIZE} bytes, and the next window is mapped when a game
+ * runs past the end of the current one, so archives may be larger than a single mapping allows.
+ *
+ * <p>File layout: the 8-byte {@link #MAGIC}, the int format {@link #VERSION} and an unused int,
+ * then one record per game. A record is a byte with the number of pits per side in its low four
+ * bits and whether player A moved first in its high bit, the unsigned short number of starting
+ * stones per pit and the unsigned short number of moves, then the moves two to a byte, first move
+ * in the high nibble. A move is the pit chosen counted from the first pit of the mover's row, so a
+ * typical game takes about 25 bytes.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class GameRecordReader implements Closeable {
+  public static final long MAGIC = 0x4D4E434C47524543L; // "MNCLGREC"
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 16;
+  public static final int RECORD_HEADER_SIZE = 5;
+  public static final int MAX_PITS_PER_PLAYER = 15;
+  public static final int MAX_STONES = 0xFFFF;
+  public static final int MAX_MOVES = 0xFFFF;
+  public static final int WINDOW_SIZE = 1 << 30;
+
+  static final int PITS_MASK = 0x0F;
+  static final int PLAYER_A_FIRST = 0x80;
+
+  private final FileChannel channel;
+  private final long size;
+  private final int windowSize;
+  private ByteBuffer window;
+  private long windowStart;
+  private long position = HEADER_SIZE; // the start of the next game in the file
+  private int movesStart; // the first move of the current game in the window
+  private int numPitsPerPlayer;
+  private int numStones;
+  private boolean isPlayerAFirst;
+  private int numMoves;
+  private long numGames;
+
+  private GameRecordReader(FileChannel channel, int windowSize) throws IOException {
+    this.channel = channel;
+    this.windowSize = windowSize;
+    size = channel.size();
+    map(0);
+  }
+
+  /**
+   * Maps an archive into memory.
+   *
+   * @param file the file written by {@link GameRecordWriter}
+   * @return a reader positioned before the first game, which must be closed
+   * @throws IOException if the file can't be read or is not an archive
+   */
+  public static GameRecordReader open(Path file) throws IOException {
+    return open(file, WINDOW_SIZE);
+  }
+
+  /**
+   * Maps an archive into memory in windows of the given size.
+   *
+   * @param file the file written by {@link GameRecordWriter}
+   * @param windowSize the most bytes mapped at once, at least the size of the largest game
+   * @return a reader positioned before the first game, which must be closed
+   * @throws IOException if the file can't be read or is not an archive
+   */
+  static GameRecordReader open(Path file, int windowSize) throws IOException {
+    if (windowSize < RECORD_HEADER_SIZE + (MAX_MOVES + 1) / 2) {
+      throw new IllegalArgumentException("A window of " + windowSize + " bytes can't hold a game");
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      GameRecordReader reader = new GameRecordReader(channel, windowSize);
+      checkHeader(reader.window, file);
+      return reader;
+    } catch (IOException | RuntimeException ex) {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Maps the window starting at a byte of the file.
+   *
+   * @param start the offset of the first byte to map
+   * @throws IOException if the file can't be mapped
+   */
+  private void map(long start) throws IOException {
+    window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, size - start));
+    windowStart = start;
+  }
+
+  /**
+   * Makes sure a range of the file is in the current window, mapping a new one starting at the
+   * range if it isn't.
+   *
+   * @param start the offset of the first byte needed
+   * @param end the offset after the last byte needed
+   * @return the offset of the first byte in the window
+   * @throws IOException if the file can't be mapped
+   */
+  private int inWindow(long start, long end) throws IOException {
+    if (start < windowStart || end > windowStart + window.limit()) {
+      map(start);
+    }
+    return (int) (start - windowStart);
+  }
+
+  /** Closes the archive. The last window stays mapped until it is garbage collected. */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Checks that a buffer starts with an archive header.
+   *
+   * @param header the buffer holding the header
+   * @param file the file the header came from, for the error message
+   * @throws IOException if the header doesn't match
+   */
+  static void checkHeader(ByteBuffer header, Path file) throws IOException {
+    if (header.limit() < HEADER_SIZE
+        || header.getLong(0) != MAGIC
+        || header.getInt(8) != VERSION) {
+      throw new IOException(file + " is not a game archive");
+    }
+  }
+
+  /**
+   * Moves to the next game.
+   *
+   * @return whether there was another game
+   * @throws IOException if the archive ends in the middle of a game
+   */
+  public boolean next() throws IOException {
+    if (position == size) {
+      return false;
+    }
+    if (size - position < RECORD_HEADER_SIZE) {
+      throw new IOException("Truncated game header at byte " + position);
+    }
+    int header = inWindow(position, position + RECORD_HEADER_SIZE);
+    int variant = window.get(header) & 0xFF;
+    numPitsPerPlayer = variant & PITS_MASK;
+    isPlayerAFirst = (variant & PLAYER_A_FIRST) != 0;
+    numStones = window.getShort(header + 1) & 0xFFFF;
+    numMoves = window.getShort(header + 3) & 0xFFFF;
+    long end = position + RECORD_HEADER_SIZE + (numMoves + 1) / 2;
+    if (end > size) {
+      throw new IOException("Truncated game at byte " + position);
+    }
+
+    // The whole game must be mapped, so the moves can be read from the window
+    movesStart = inWindow(position, end) + RECORD_HEADER_SIZE;
+    position = end;
+    numGames++;
+    return true;
+  }
+
+  /**
+   * Returns the number of pits per side of the current game.
+   *
+   * @return the number of pits per player
+   */
+  public int getNumPitsPerPlayer() {
+    return numPitsPerPlayer;
+  }
+
+  /**
+   * Returns the number of stones per pit the current game started with.
+   *
+   * @return the starting number of stones per pit
+   */
+  public int getNumStones() {
+    return numStones;
+  }
+
+  /**
+   * Returns whether player A moved first in the current game.
+   *
+   * @return whether player A moved first
+   */
+  public boolean isPlayerAFirst() {
+    return isPlayerAFirst;
+  }
+
+  /**
+   * Returns the number of moves in the current game.
+   *
+   * @return the number of moves
+   */
+  public int getNumMoves() {
+    return numMoves;
+  }
+
+  /**
+   * Returns a move of the current game, counted from the first pit of the mover's row.
+   *
+   * @param ply the number of moves played before it
+   * @return the pit chosen, from 0 to one less than the number of pits per player
+   */
+  public int getMove(int ply) {
+    int packed = window.get(movesStart + ply / 2);
+    return (ply & 1) == 0 ? packed >>> 4 & 0x0F : packed & 0x0F;
+  }
+
+  /**
+   * Returns the number of games read so far, including the current one.
+   *
+   * @return the number of games
+   */
+  public long getNumGames() {
+    return numGames;
+  }
+
+  /**
+   * Plays the current game on a model from its starting position. The model should be made with
+   * {@code isCounted} false, so replays are not counted as games played.
+   *
+   * @param model a model with the game's number of pits per side
+   * @throws IOException if the record has a move the rules don't allow
+   */
+  public void replay(MancalaModel model) throws IOException {
+    if (model.getNumPitsPerPlayer() != numPitsPerPlayer) {
+      throw new IllegalArgumentException(
+          "Game " + numGames + " needs a board with " + numPitsPerPlayer + " pits per side");
+    }
+    model.setUpMancalaBoard(numStones, isPlayerAFirst);
+    for (int ply = 0; ply < numMoves; ply++) {
+      int first = model.isPlayerATurn() ? 0 : model.getAMancalaPos() + 1;
+      model.move(first + getMove(ply));
+      if (model.getPly() != ply + 1) {
+        throw new IOException("Game " + numGames + " has an illegal move at ply " + ply);
+      }
+    }
+  }
+
+  /**
+   * Replays every game of an archive and prints how fast it went.
+   *
+   * @param args the archive's file name
+   * @throws IOException if the archive can't be read
+   */
+  public static void main(String[] args) throws IOException {
+    MancalaModel model = new MancalaModel(MancalaModel.NUM_PITS_PER_PLAYER, false);
+    long[] wins = new long[3];
+    long moves = 0;
+    long games;
+    long start = System.nanoTime();
+    try (GameRecordReader reader = open(Paths.get(args[0]))) {
+      while (reader.next()) {
+        if (model.getNumPitsPerPlayer() != reader.getNumPitsPerPlayer()) {
+          model = new MancalaModel(reader.getNumPitsPerPlayer(), false);
+        }
+        reader.replay(model);
+        moves += reader.getNumMoves();
+        wins[model.getWinner()]++;
+      }
+      games = reader.getNumGames();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf(
+        "Replayed %d games, %d moves in %.2f s, %.0f games/s%n",
+        games, moves, seconds, games / seconds);
+    System.out.printf(
+        "A won %d, B won %d, %d ties%n",
+        wins[MancalaModel.A_WINNER], wins[MancalaModel.B_WINNER], wins[MancalaModel.TIE]);
+  }
+}
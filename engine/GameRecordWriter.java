@@ -0,0 +1,146 @@
+package ram.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends games to an archive that {@link GameRecordReader} can replay, in the format described
+ * there. Games are packed into a buffer and written to the file's channel whenever it fills up, so
+ * the file only ever grows at its end. A writer is not thread-safe.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class GameRecordWriter implements Closeable {
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+  /**
+   * Opens an archive to add games to, creating it if it doesn't exist.
+   *
+   * @param file the archive's file
+   * @throws IOException if the file can't be opened or is not an archive
+   */
+  public GameRecordWriter(Path file) throws IOException {
+    channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(GameRecordReader.HEADER_SIZE);
+      if (channel.size() == 0) {
+        header.putLong(GameRecordReader.MAGIC).putInt(GameRecordReader.VERSION).putInt(0).flip();
+        channel.write(header);
+      } else {
+        channel.read(header, 0);
+        header.flip();
+        GameRecordReader.checkHeader(header, file);
+        channel.position(channel.size());
+      }
+    } catch (IOException ex) {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Adds the moves played so far in a model's game.
+   *
+   * @param model the model
+   * @throws IOException if the archive can't be written
+   */
+  public void write(MancalaModel model) throws IOException {
+    int[] moves = new int[model.getPly()];
+    for (int ply = 0; ply < moves.length; ply++) {
+      moves[ply] = model.getMove(ply);
+    }
+    write(
+        model.getNumPitsPerPlayer(),
+        model.getStartingStones(),
+        model.isPlayerAFirst(),
+        moves,
+        moves.length);
+  }
+
+  /**
+   * Adds a game.
+   *
+   * @param numPitsPerPlayer the number of pits per side, at most 15
+   * @param numStones the number of stones per pit at the start
+   * @param isPlayerAFirst whether player A moved first
+   * @param moves the board index of the pit chosen by each move
+   * @param numMoves the number of moves
+   * @throws IOException if the archive can't be written
+   */
+  public void write(
+      int numPitsPerPlayer, int numStones, boolean isPlayerAFirst, int[] moves, int numMoves)
+      throws IOException {
+    if (numPitsPerPlayer < 1
+        || numPitsPerPlayer > GameRecordReader.MAX_PITS_PER_PLAYER
+        || numStones > GameRecordReader.MAX_STONES
+        || numMoves > GameRecordReader.MAX_MOVES) {
+      throw new IllegalArgumentException("Game is too large to record");
+    }
+    if (buffer.remaining() < GameRecordReader.RECORD_HEADER_SIZE + (numMoves + 1) / 2) {
+      flush();
+    }
+
+    int start = buffer.position();
+    try {
+      buffer
+          .put((byte) (numPitsPerPlayer | (isPlayerAFirst ? GameRecordReader.PLAYER_A_FIRST : 0)))
+          .putShort((short) numStones)
+          .putShort((short) numMoves);
+      for (int ply = 0; ply < numMoves; ply += 2) {
+        int high = rowPit(moves[ply], numPitsPerPlayer);
+        int low = ply + 1 < numMoves ? rowPit(moves[ply + 1], numPitsPerPlayer) : 0;
+        buffer.put((byte) (high << 4 | low));
+      }
+    } catch (IllegalArgumentException ex) {
+      // Drop the part of the game already buffered
+      buffer.position(start);
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns a pit's place in its row.
+   *
+   * @param index the board index of a pit that isn't a Mancala
+   * @param numPitsPerPlayer the number of pits per side
+   * @return the pit counted from the first pit of its row
+   */
+  private static int rowPit(int index, int numPitsPerPlayer) {
+    int pit = index < numPitsPerPlayer ? index : index - numPitsPerPlayer - 1;
+    if (pit < 0 || pit >= numPitsPerPlayer) {
+      throw new IllegalArgumentException("Can't record a move from pit " + index);
+    }
+    return pit;
+  }
+
+  /**
+   * Writes the buffered games to the file.
+   *
+   * @throws IOException if the archive can't be written
+   */
+  public void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package ram.engine;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One game hosted by a {@link SessionServer}. A session is an actor: commands sent to it queue up
+ * in its mailbox and run one at a time on a shared {@link Executor}, so its {@link MancalaModel}
+ * is only ever touched by one thread at a time and needs no locking. An idle session holds no
+ * thread, only its model and an empty mailbox.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class GameSession implements Runnable {
+  private static final int MAX_MESSAGES_PER_RUN = 64;
+
+  private final long id;
+  private final MancalaModel model;
+  private final Executor executor;
+  private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private volatile long lastActiveNanos = System.nanoTime();
+
+  /**
+   * Creates a session with a new game.
+   *
+   * @param id the session ID
+   * @param numStones the number of stones per pit
+   * @param isPlayerAFirst whether player A moves first
+   * @param executor the executor running the commands of all sessions
+   */
+  GameSession(long id, int numStones, boolean isPlayerAFirst, Executor executor) {
+    this.id = id;
+    this.executor = executor;
+    model = new MancalaModel();
+    model.setUpMancalaBoard(numStones, isPlayerAFirst);
+  }
+
+  /**
+   * Queues a command to run after the ones already sent.
+   *
+   * @param command the command, which may use the methods that must run on the session
+   */
+  public void send(Runnable command) {
+    lastActiveNanos = System.nanoTime();
+    mailbox.add(command);
+    if (scheduled.compareAndSet(false, true)) {
+      executor.execute(this);
+    }
+  }
+
+  /** Runs queued commands, then hands the thread back so other sessions get their turn. */
+  @Override
+  public void run() {
+    for (int i = 0; i < MAX_MESSAGES_PER_RUN; i++) {
+      Runnable command = mailbox.poll();
+      if (command == null) {
+        break;
+      }
+      command.run();
+    }
+    scheduled.set(false);
+
+    // A command may have arrived after the last poll
+    if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+      executor.execute(this);
+    }
+  }
+
+  /**
+   * Plays a move for a player. Must run on the session.
+   *
+   * @param isPlayerA whether player A is moving
+   * @param pit the pit chosen, counted from the first pit of the player's row
+   * @return the reply to the client
+   */
+  String move(boolean isPlayerA, int pit) {
+    if (model.gameOver()) {
+      return error("game is over");
+    }
+    if (isPlayerA != model.isPlayerATurn()) {
+      return error("not your turn");
+    }
+    if (pit < 0 || pit >= MancalaModel.NUM_PITS_PER_PLAYER) {
+      return error("no pit " + pit);
+    }
+    int ply = model.getPly();
+    model.move(isPlayerA ? pit : MancalaModel.A_MANCALA_POS + 1 + pit);
+    return model.getPly() == ply ? error("pit " + pit + " is empty") : state();
+  }
+
+  /**
+   * Undoes the last move if the model's undo rules allow it. Must run on the session.
+   *
+   * @return the reply to the client
+   */
+  String undo() {
+    int ply = model.getPly();
+    model.undoMove();
+    return model.getPly() == ply ? error("can't undo now") : state();
+  }
+
+  /**
+   * Describes the game: whose turn it is, or {@code OVER}, then the stones in every pit.
+   * Must run on the session.
+   *
+   * @return the reply to the client
+   */
+  String state() {
+    StringBuilder reply = new StringBuilder(64).append("OK ").append(id).append(' ');
+    reply.append(model.gameOver() ? "OVER" : model.isPlayerATurn() ? "A" : "B");
+    for (int i = 0; i < MancalaModel.TOTAL_NUM_PITS; i++) {
+      reply.append(' ').append(model.getMarbles(i));
+    }
+    return reply.append('\n').toString();
+  }
+
+  private String error(String message) {
+    return "ERR " + id + ' ' + message + '\n';
+  }
+
+  /**
+   * Returns the session ID.
+   *
+   * @return the ID
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Returns when a command was last sent to this session.
+   *
+   * @return the time from {@link System#nanoTime()}
+   */
+  public long getLastActiveNanos() {
+    return lastActiveNanos;
+  }
+}
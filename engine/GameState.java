@@ -0,0 +1,486 @@
+package ram.engine;
+
+/**
+ * An immutable, packed Mancala position used by the headless engines. The 14 pits and the side to
+ * move are stored in two longs, and the static {@link #play(long, long, int, long[], int)} kernel
+ * applies a move without any heap allocation. The rules are exactly those of {@link
+ * MancalaModel#move(int)}.
+ *
+ * <p>Each pit is one byte lane: {@code lo} holds pits 0-6 (player A's row and Mancala), {@code hi}
+ * holds pits 7-13 (player B's row and Mancala), and bit 56 of {@code hi} is set when it is player
+ * A's turn. A board may hold at most {@value #MAX_STONES} stones in total.
+ *
+ * <p>The rules are the same for both players, so a position plays exactly like its mirror, which
+ * has the two rows and Mancalas swapped and the other player to move; pit {@code i} of one is pit
+ * {@link #mirrorPit(int)} of the other. The canonical form of a position is whichever of the two
+ * has player A to move. Tables keyed by the canonical form hold one entry for both. Scores from
+ * the side to move's point of view, which the engines use, are the same for both; scores from
+ * player A's point of view change sign, see {@link #canonicalScore(int, long)}.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public final class GameState {
+  /** Returned by {@link #play(long, long, int, long[], int)} when the move is not allowed. */
+  public static final int ILLEGAL = -1;
+  /** Set in the result of a move whose last stone captured the opposite pit. */
+  public static final int CAPTURE = 1;
+  /** Set in the result of a move whose last stone landed in the mover's own Mancala. */
+  public static final int EXTRA_TURN = 2;
+  /** Set in the result of a move that ended the game. */
+  public static final int GAME_OVER = 4;
+  /** The most stones a board may hold, so that no lane can overflow into the next. */
+  public static final int MAX_STONES = 255;
+  /** The most stones per pit a game may start with. */
+  public static final int MAX_STONES_PER_PIT = MAX_STONES / (MancalaModel.TOTAL_NUM_PITS - 2);
+
+  static final int LANE_BITS = 8;
+  static final int LANES_PER_WORD = MancalaModel.TOTAL_NUM_PITS / 2;
+  static final long LANE_MASK = 0xFFL;
+  static final long ROW_MASK = 0x0000_FFFF_FFFF_FFFFL; // the six pits of a row, without the Mancala
+  static final long BOARD_MASK = 0x00FF_FFFF_FFFF_FFFFL; // the whole row including the Mancala
+  static final long A_TURN_BIT = 1L << 56;
+  private static final long BYTE_SUM = 0x0101_0101_0101_0101L;
+  private static final long LOW_7_BITS = 0x7F7F_7F7F_7F7F_7F7FL;
+  private static final long HIGH_BITS = 0x8080_8080_8080_8080L;
+  private static final long GATHER_LANES = 0x0102_0408_1020_4080L; // lane k's bit 0 to bit 56 + k
+
+  private final long lo;
+  private final long hi;
+
+  private GameState(long lo, long hi) {
+    this.lo = lo;
+    this.hi = hi;
+  }
+
+  /**
+   * Returns the position at the start of a game.
+   *
+   * @param numStones the number of stones per pit, at most {@link #MAX_STONES_PER_PIT}
+   * @param isPlayerATurn whether player A moves first
+   * @return the starting position
+   * @throws IllegalArgumentException if the board would hold more than {@link #MAX_STONES} stones
+   */
+  public static GameState initial(int numStones, boolean isPlayerATurn) {
+    if (numStones < 0 || numStones > MAX_STONES_PER_PIT) {
+      throw new IllegalArgumentException("Can't pack " + numStones + " stones per pit");
+    }
+    long row = (numStones & LANE_MASK) * (BYTE_SUM & ROW_MASK);
+    return new GameState(row, row | (isPlayerATurn ? A_TURN_BIT : 0));
+  }
+
+  /**
+   * Packs a board laid out like {@link MancalaModel}'s into a state.
+   *
+   * @param board the number of stones in each of the 14 pits
+   * @param isPlayerATurn whether it is player A's turn
+   * @return the packed state
+   * @throws IllegalArgumentException if a pit is negative or the board holds more than {@link
+   *     #MAX_STONES} stones
+   */
+  public static GameState of(int[] board, boolean isPlayerATurn) {
+    int total = 0;
+    for (int stones : board) {
+      if (stones < 0 || stones > MAX_STONES) {
+        throw new IllegalArgumentException("Can't pack a pit of " + stones + " stones");
+      }
+      total += stones;
+    }
+    if (total > MAX_STONES) {
+      throw new IllegalArgumentException("Can't pack a board of " + total + " stones");
+    }
+    long lo = 0;
+    long hi = isPlayerATurn ? A_TURN_BIT : 0;
+    for (int i = 0; i < LANES_PER_WORD; i++) {
+      lo |= (board[i] & LANE_MASK) << (i * LANE_BITS);
+      hi |= (board[i + LANES_PER_WORD] & LANE_MASK) << (i * LANE_BITS);
+    }
+    return new GameState(lo, hi);
+  }
+
+  /**
+   * Wraps an already packed state.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return the state
+   */
+  public static GameState of(long lo, long hi) {
+    return new GameState(lo, hi);
+  }
+
+  /**
+   * Returns the number of stones in a pit of a packed state.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @param index the index of the pit
+   * @return the number of stones in the pit
+   */
+  public static int stones(long lo, long hi, int index) {
+    return index < LANES_PER_WORD
+        ? (int) ((lo >>> (index * LANE_BITS)) & LANE_MASK)
+        : (int) ((hi >>> ((index - LANES_PER_WORD) * LANE_BITS)) & LANE_MASK);
+  }
+
+  /**
+   * Returns whether it is player A's turn in a packed state.
+   *
+   * @param hi pits 7-13 and the turn bit
+   * @return whether it is player A's turn
+   */
+  public static boolean isPlayerATurn(long hi) {
+    return (hi & A_TURN_BIT) != 0;
+  }
+
+  /**
+   * Returns whether either row of a packed state is empty.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return if game is over
+   */
+  public static boolean gameOver(long lo, long hi) {
+    return (lo & ROW_MASK) == 0 || (hi & ROW_MASK) == 0;
+  }
+
+  /**
+   * Returns the pit of the mirrored position that matches a pit of this one. The mapping is its
+   * own inverse.
+   *
+   * @param index the index of the pit
+   * @return the index of the matching pit
+   */
+  public static int mirrorPit(int index) {
+    return (index + LANES_PER_WORD) % MancalaModel.TOTAL_NUM_PITS;
+  }
+
+  /**
+   * Returns pits 0-6 of the canonical form of a packed state.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return the low word of the position or its mirror, whichever has player A to move
+   */
+  public static long canonicalLo(long lo, long hi) {
+    return isPlayerATurn(hi) ? lo : hi & BOARD_MASK;
+  }
+
+  /**
+   * Returns pits 7-13 and the turn bit of the canonical form of a packed state.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return the high word of the position or its mirror, whichever has player A to move
+   */
+  public static long canonicalHi(long lo, long hi) {
+    return isPlayerATurn(hi) ? hi : lo | A_TURN_BIT;
+  }
+
+  /**
+   * Maps a pit between a packed state and its canonical form, either way.
+   *
+   * @param index the index of the pit, or -1 for no pit
+   * @param hi pits 7-13 and the turn bit of the state that isn't canonical
+   * @return the index of the matching pit, or -1
+   */
+  public static int canonicalPit(int index, long hi) {
+    return index < 0 || isPlayerATurn(hi) ? index : mirrorPit(index);
+  }
+
+  /**
+   * Maps a score from player A's point of view between a packed state and its canonical form,
+   * either way. Scores from the side to move's point of view need no mapping.
+   *
+   * @param scoreForA the score from player A's point of view
+   * @param hi pits 7-13 and the turn bit of the state that isn't canonical
+   * @return the score from player A's point of view in the other form
+   */
+  public static int canonicalScore(int scoreForA, long hi) {
+    return isPlayerATurn(hi) ? scoreForA : -scoreForA;
+  }
+
+  /**
+   * Returns the pits the side to move may sow from, found for all six pits at once.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return bit {@code i} set if pit {@code i} is a legal move, so 0 if the mover's row is empty
+   */
+  public static int legalMoves(long lo, long hi) {
+    boolean isPlayerATurn = isPlayerATurn(hi);
+    long row = (isPlayerATurn ? lo : hi) & ROW_MASK;
+
+    // Set the top bit of every non-empty lane, then gather those bits into one byte
+    long nonEmpty = (((row & LOW_7_BITS) + LOW_7_BITS) | row) & HIGH_BITS;
+    int mask = (int) (((nonEmpty >>> 7) * GATHER_LANES) >>> 56);
+    return isPlayerATurn ? mask : mask << LANES_PER_WORD;
+  }
+
+  /**
+   * Returns the sum of the six pits of one packed row, without its Mancala.
+   *
+   * @param word {@code lo} for player A's row or {@code hi} for player B's row
+   * @return the number of stones in the row
+   */
+  static int rowSum(long word) {
+    return (int) ((((word & ROW_MASK) * BYTE_SUM) >>> (5 * LANE_BITS)) & LANE_MASK);
+  }
+
+  /**
+   * Applies a move to a packed state without allocating. The resulting {@code lo} and {@code hi}
+   * words are written to {@code out[offset]} and {@code out[offset + 1]}; on an illegal move
+   * {@code out} is left untouched.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @param index the index of the pit to sow from
+   * @param out the array receiving the new state
+   * @param offset the position of the new state in {@code out}
+   * @return {@link #ILLEGAL}, or a combination of {@link #CAPTURE}, {@link #EXTRA_TURN} and {@link
+   *     #GAME_OVER}
+   */
+  public static int play(long lo, long hi, int index, long[] out, int offset) {
+    boolean isPlayerATurn = (hi & A_TURN_BIT) != 0;
+
+    // Only the mover's own, non-empty pits can be played
+    if (index < 0
+        || index >= MancalaModel.B_MANCALA_POS
+        || index == MancalaModel.A_MANCALA_POS
+        || isPlayerATurn != index < MancalaModel.A_MANCALA_POS) {
+      return ILLEGAL;
+    }
+    int stonesToDrop = stones(lo, hi, index);
+    if (stonesToDrop == 0) {
+      return ILLEGAL;
+    }
+
+    int ownMancala = isPlayerATurn ? MancalaModel.A_MANCALA_POS : MancalaModel.B_MANCALA_POS;
+    int opponentMancala = isPlayerATurn ? MancalaModel.B_MANCALA_POS : MancalaModel.A_MANCALA_POS;
+    int flags = 0;
+
+    // Pick up the stones
+    if (index < LANES_PER_WORD) {
+      lo &= ~(LANE_MASK << (index * LANE_BITS));
+    } else {
+      hi &= ~(LANE_MASK << ((index - LANES_PER_WORD) * LANE_BITS));
+    }
+
+    // Drop one stone per pit, skipping the opponent's Mancala
+    while (stonesToDrop > 0) {
+      index = index == MancalaModel.TOTAL_NUM_PITS - 1 ? 0 : index + 1;
+      if (index == opponentMancala) {
+        index = index == MancalaModel.TOTAL_NUM_PITS - 1 ? 0 : index + 1;
+      }
+
+      long dropped = 1;
+      if (stonesToDrop == 1) {
+        // Last stone in own Mancala => another turn
+        if (index == ownMancala) {
+          flags |= EXTRA_TURN;
+        }
+
+        // Last stone in an empty pit on own side => take it and the opposite pit to own Mancala
+        else if (isPlayerATurn == index < MancalaModel.A_MANCALA_POS
+            && stones(lo, hi, index) == 0) {
+          int oppositeIndex = MancalaModel.B_MANCALA_POS - 1 - index;
+          int oppositeStoneCount = stones(lo, hi, oppositeIndex);
+          if (oppositeStoneCount > 0) {
+            if (oppositeIndex < LANES_PER_WORD) {
+              lo &= ~(LANE_MASK << (oppositeIndex * LANE_BITS));
+            } else {
+              hi &= ~(LANE_MASK << ((oppositeIndex - LANES_PER_WORD) * LANE_BITS));
+            }
+            dropped += oppositeStoneCount;
+            index = ownMancala;
+            flags |= CAPTURE;
+          }
+        }
+      }
+
+      if (index < LANES_PER_WORD) {
+        lo += dropped << (index * LANE_BITS);
+      } else {
+        hi += dropped << ((index - LANES_PER_WORD) * LANE_BITS);
+      }
+      stonesToDrop--;
+    }
+
+    // Game over, all stones left in pits go to respective Mancalas
+    if ((lo & ROW_MASK) == 0 || (hi & ROW_MASK) == 0) {
+      lo = (lo & ~BOARD_MASK)
+          | ((long) (stones(lo, hi, MancalaModel.A_MANCALA_POS) + rowSum(lo))
+              << (MancalaModel.NUM_PITS_PER_PLAYER * LANE_BITS));
+      hi = (hi & ~BOARD_MASK)
+          | ((long) (stones(lo, hi, MancalaModel.B_MANCALA_POS) + rowSum(hi))
+              << (MancalaModel.NUM_PITS_PER_PLAYER * LANE_BITS));
+      flags |= GAME_OVER;
+    }
+
+    // Change turns if not drop in own Mancala
+    if ((flags & EXTRA_TURN) == 0) {
+      hi ^= A_TURN_BIT;
+    }
+
+    out[offset] = lo;
+    out[offset + 1] = hi;
+    return flags;
+  }
+
+  /**
+   * Returns the position after a move from this one.
+   *
+   * @param index the index of the pit
+   * @return the new position, or this position if the move is not allowed
+   */
+  public GameState play(int index) {
+    long[] out = new long[2];
+    return play(lo, hi, index, out, 0) == ILLEGAL ? this : new GameState(out[0], out[1]);
+  }
+
+  /**
+   * Returns the mirror of this position, with the rows and Mancalas swapped and the other player
+   * to move.
+   *
+   * @return the mirrored position
+   */
+  public GameState mirror() {
+    return new GameState(hi & BOARD_MASK, lo | (isPlayerATurn() ? 0 : A_TURN_BIT));
+  }
+
+  /**
+   * Returns the canonical form of this position.
+   *
+   * @return this position if player A is to move, otherwise its mirror
+   */
+  public GameState canonical() {
+    return isPlayerATurn() ? this : mirror();
+  }
+
+  /**
+   * Returns the pits the side to move may sow from.
+   *
+   * @return bit {@code i} set if pit {@code i} is {@linkplain #isLegal(int) legal}
+   */
+  public int getLegalMoves() {
+    return legalMoves(lo, hi);
+  }
+
+  /**
+   * Returns whether a move is allowed from this position.
+   *
+   * @param index the index of the pit
+   * @return whether the pit belongs to the side to move and has stones in it
+   */
+  public boolean isLegal(int index) {
+    return index >= 0
+        && index < MancalaModel.B_MANCALA_POS
+        && index != MancalaModel.A_MANCALA_POS
+        && isPlayerATurn() == index < MancalaModel.A_MANCALA_POS
+        && getStones(index) > 0;
+  }
+
+  /**
+   * Returns the number of stones in the specified pit.
+   *
+   * @param index the index of the pit
+   * @return the number of stones in the specified pit
+   */
+  public int getStones(int index) {
+    return stones(lo, hi, index);
+  }
+
+  /**
+   * Returns whether it is Player A's turn.
+   *
+   * @return whether it is Player A's turn
+   */
+  public boolean isPlayerATurn() {
+    return isPlayerATurn(hi);
+  }
+
+  /**
+   * Determines if the game is over.
+   *
+   * @return if game is over
+   */
+  public boolean isGameOver() {
+    return gameOver(lo, hi);
+  }
+
+  /**
+   * Returns the winner of the game.
+   *
+   * @return 0 if player A is winner, 1 if player B is winner, 2 if tie
+   */
+  public int getWinner() {
+    int playerAStoneCount = getStones(MancalaModel.A_MANCALA_POS);
+    int playerBStoneCount = getStones(MancalaModel.B_MANCALA_POS);
+    if (playerAStoneCount == playerBStoneCount) {
+      return MancalaModel.TIE;
+    }
+    return playerAStoneCount > playerBStoneCount ? MancalaModel.A_WINNER : MancalaModel.B_WINNER;
+  }
+
+  /**
+   * Returns the packed pits 0-6.
+   *
+   * @return the low word
+   */
+  public long getLo() {
+    return lo;
+  }
+
+  /**
+   * Returns the packed pits 7-13 and the turn bit.
+   *
+   * @return the high word
+   */
+  public long getHi() {
+    return hi;
+  }
+
+  /**
+   * Returns the Zobrist key of the position, the same as the model's for the same board and turn.
+   *
+   * @return the key
+   */
+  public long getKey() {
+    return Zobrist.key(lo, hi);
+  }
+
+  /**
+   * Returns the Zobrist key of the canonical form, which this position shares with its mirror.
+   *
+   * @return the key
+   */
+  public long getCanonicalKey() {
+    return Zobrist.key(canonicalLo(lo, hi), canonicalHi(lo, hi));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof GameState)) {
+      return false;
+    }
+    GameState other = (GameState) o;
+    return lo == other.lo && hi == other.hi;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(lo * 31 + hi);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder strBuilder = new StringBuilder();
+    for (int i = MancalaModel.B_MANCALA_POS; i > MancalaModel.A_MANCALA_POS; i--) {
+      strBuilder.append(getStones(i)).append(' ');
+    }
+    strBuilder.append("/ ");
+    for (int i = 0; i <= MancalaModel.A_MANCALA_POS; i++) {
+      strBuilder.append(getStones(i)).append(' ');
+    }
+    return strBuilder.append(isPlayerATurn() ? "(A to move)" : "(B to move)").toString();
+  }
+}
@@ -0,0 +1,40 @@
+package ram.engine;
+
+/**
+ * A class which defines a concrete strategy for the Strategy pattern. In this case, it plays a move
+ * that earns another turn if there is one, and otherwise the move that puts the most stones in its
+ * own Mancala right away.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class GreedyPolicy implements MovePolicy {
+  private static final int EXTRA_TURN_BONUS = 1000;
+
+  private final long[] child = new long[2];
+
+  @Override
+  public int chooseMove(long lo, long hi) {
+    int ownMancala =
+        GameState.isPlayerATurn(hi) ? MancalaModel.A_MANCALA_POS : MancalaModel.B_MANCALA_POS;
+    int stored = GameState.stones(lo, hi, ownMancala);
+    int bestMove = -1;
+    int bestGain = -1;
+    for (int pit = ownMancala - 1; pit >= ownMancala - MancalaModel.NUM_PITS_PER_PLAYER; pit--) {
+      int flags = GameState.play(lo, hi, pit, child, 0);
+      if (flags == GameState.ILLEGAL) {
+        continue;
+      }
+
+      // Another turn beats any single move's gain
+      int gain = GameState.stones(child[0], child[1], ownMancala) - stored;
+      if ((flags & GameState.EXTRA_TURN) != 0 && (flags & GameState.GAME_OVER) == 0) {
+        gain += EXTRA_TURN_BONUS;
+      }
+      if (gain > bestGain) {
+        bestGain = gain;
+        bestMove = pit;
+      }
+    }
+    return bestMove;
+  }
+}
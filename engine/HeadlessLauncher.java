@@ -0,0 +1,263 @@
+package ram.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Runs the game without any views. Only classes of this package and {@code java.base} are used, so
+ * AWT and Swing are never loaded, no display is needed and the JVM starts in a few tens of
+ * milliseconds, less with the class data archive {@code mvn package} writes to {@code
+ * target/headless.jsa}.
+ *
+ * <p>Usage: {@code java ram.engine.HeadlessLauncher COMMAND [options]}, where the command is one
+ * of:
+ *
+ * <ul>
+ *   <li>{@code play [--stones N] [--first A|B] [--engine POLICY] [--seed N] [--millis N]} plays
+ *       player A from standard input against a {@link MovePolicy} playing player B, or with {@code
+ *       --millis} against a {@link SearchController} given that long per move
+ *   <li>{@code analyze [--depth N] [--millis N] [--endgame FILE] [--book FILE] [POSITION]}
+ *       searches a position with the {@link AlphaBetaEngine} and prints the best move
+ *   <li>{@code simulate} runs the {@link SelfPlaySimulator}
+ *   <li>{@code serve} runs a {@link SessionServer}
+ *   <li>{@code replay} replays an archive with the {@link GameRecordReader}
+ *   <li>{@code book} builds an opening book with the {@link OpeningBookBuilder}
+ * </ul>
+ *
+ * <p>The last four take the options of their class's {@code main}. A position is the stones in
+ * the 14 pits in the model's order, then {@code A} or {@code B} for the side to move, e.g. {@code
+ * "4 4 4 4 4 4 0 4 4 4 4 4 4 0 A"}; the default is the start of a game with 4 stones.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class HeadlessLauncher {
+  private static final String USAGE =
+      "Usage: java ram.engine.HeadlessLauncher play|analyze|simulate|serve|replay|book [options]";
+
+  /**
+   * Runs a command.
+   *
+   * @param args the command and its options, as described in the class comment
+   * @throws Exception if the command fails
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length == 0) {
+      System.err.println(USAGE);
+      System.exit(2);
+    }
+    String[] options = Arrays.copyOfRange(args, 1, args.length);
+    switch (args[0]) {
+      case "play":
+        play(options);
+        break;
+      case "analyze":
+        analyze(options);
+        break;
+      case "simulate":
+        SelfPlaySimulator.main(options);
+        break;
+      case "serve":
+        SessionServer.main(options);
+        break;
+      case "replay":
+        GameRecordReader.main(options);
+        break;
+      case "book":
+        OpeningBookBuilder.main(options);
+        break;
+      default:
+        System.err.println("Unknown command: " + args[0]);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+  }
+
+  /**
+   * Plays a game between standard input and a move policy.
+   *
+   * @param args the options described in the class comment
+   * @throws IOException if standard input can't be read
+   */
+  private static void play(String[] args) throws IOException {
+    int numStones = 4;
+    boolean isAFirst = true;
+    String policyName = "alphabeta:12";
+    long seed = System.nanoTime();
+    long millis = 0;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--stones":
+          numStones = Integer.parseInt(args[i + 1]);
+          break;
+        case "--first":
+          isAFirst = args[i + 1].equalsIgnoreCase("A");
+          break;
+        case "--engine":
+          policyName = args[i + 1];
+          break;
+        case "--seed":
+          seed = Long.parseLong(args[i + 1]);
+          break;
+        case "--millis":
+          millis = Long.parseLong(args[i + 1]);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    if (numStones < 0 || numStones > GameState.MAX_STONES_PER_PIT) {
+      throw new IllegalArgumentException("Can't play with " + numStones + " stones per pit");
+    }
+        MovePolicy policy = millis > 0 ? null : MovePolicy.create(policyName, seed);
+    SearchController controller =
+        millis > 0 ? new SearchController(new AlphaBetaEngine(), millis) : null;
+    MancalaModel model = new MancalaModel();
+    model.setUpMancalaBoard(numStones, isAFirst);
+    BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+    while (!model.gameOver()) {
+      GameState state = model.getGameState();
+      printBoard(state);
+      if (state.isPlayerATurn()) {
+        System.out.print("Your move (1-" + MancalaModel.NUM_PITS_PER_PLAYER + ", q to quit): ");
+        System.out.flush();
+        String line = in.readLine();
+        if (line == null || line.trim().equalsIgnoreCase("q")) {
+          return;
+        }
+        int index;
+        try {
+          index = Integer.parseInt(line.trim()) - 1;
+        } catch (NumberFormatException e) {
+          index = -1;
+        }
+        if (index >= MancalaModel.NUM_PITS_PER_PLAYER || !model.isLegalMove(index)) {
+          System.out.println("That pit can't be played.");
+          continue;
+        }
+        model.move(index);
+      } else if (controller != null) {
+        int index = controller.play(model);
+        System.out.printf(
+            "B plays pit %d (%s)%n", index - MancalaModel.A_MANCALA_POS, controller.report());
+      } else {
+        int index = policy.chooseMove(state.getLo(), state.getHi());
+        System.out.println(
+            "B plays pit " + (index - MancalaModel.A_MANCALA_POS) + " (" + policyName + ")");
+        model.move(index);
+      }
+    }
+    printBoard(model.getGameState());
+    int winner = model.getWinner();
+    System.out.println(
+        winner == MancalaModel.TIE
+            ? "It's a tie."
+            : winner == MancalaModel.A_WINNER ? "You win." : "B wins.");
+  }
+
+  /**
+   * Prints a board with player B's row on top, counted from B's first pit on the right, and
+   * player A's row below, counted from A's first pit on the left.
+   *
+   * @param state the position
+   */
+  private static void printBoard(GameState state) {
+    StringBuilder top = new StringBuilder("     B ");
+    for (int i = MancalaModel.B_MANCALA_POS - 1; i > MancalaModel.A_MANCALA_POS; i--) {
+      top.append(String.format("%3d", state.getStones(i)));
+    }
+    StringBuilder bottom = new StringBuilder("     A ");
+    for (int i = 0; i < MancalaModel.A_MANCALA_POS; i++) {
+      bottom.append(String.format("%3d", state.getStones(i)));
+    }
+    System.out.println();
+    System.out.println(top);
+    System.out.printf(
+        "  %3d %" + (3 * MancalaModel.NUM_PITS_PER_PLAYER + 4) + "d%n",
+        state.getStones(MancalaModel.B_MANCALA_POS),
+        state.getStones(MancalaModel.A_MANCALA_POS));
+    System.out.println(bottom);
+    System.out.println();
+  }
+
+  /**
+   * Searches a position and prints the best move.
+   *
+   * @param args the options described in the class comment
+   * @throws IOException if the endgame database or opening book can't be read
+   */
+  private static void analyze(String[] args) throws IOException {
+    int maxDepth = AlphaBetaEngine.MAX_PLY;
+    long millis = 1000;
+    String endgameFile = null;
+    String bookFile = null;
+    GameState state = GameState.initial(4, true);
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "--depth":
+          maxDepth = Integer.parseInt(args[++i]);
+          break;
+        case "--millis":
+          millis = Long.parseLong(args[++i]);
+          break;
+        case "--endgame":
+          endgameFile = args[++i];
+          break;
+        case "--book":
+          bookFile = args[++i];
+          break;
+        default:
+          state = parsePosition(args[i]);
+      }
+    }
+
+    AlphaBetaEngine engine = new AlphaBetaEngine();
+    if (endgameFile != null) {
+      engine.setEndgameDatabase(EndgameDatabase.open(Paths.get(endgameFile)));
+    }
+    if (bookFile != null) {
+      engine.setOpeningBook(OpeningBook.open(Paths.get(bookFile)));
+    }
+    long start = System.nanoTime();
+    int move = engine.findBestMove(state, maxDepth, millis);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println(state);
+    if (move < 0) {
+      System.out.println("The game is over.");
+      return;
+    }
+    int pit = state.isPlayerATurn() ? move + 1 : move - MancalaModel.A_MANCALA_POS;
+    System.out.printf(
+        "Best move: pit %d (index %d), score %+d, depth %d, %d nodes in %.2f s (%.0f nodes/s)%s%n",
+        pit,
+        move,
+        engine.getScore(),
+        engine.getCompletedDepth(),
+        engine.getNodes(),
+        seconds,
+        engine.getNodes() / seconds,
+        engine.hasHitDeadline() ? ", stopped at the deadline" : "");
+  }
+
+  /**
+   * Reads a position written as described in the class comment.
+   *
+   * @param text the position
+   * @return the position
+   */
+  private static GameState parsePosition(String text) {
+    String[] parts = text.trim().split("[\\s,]+");
+    if (parts.length != MancalaModel.TOTAL_NUM_PITS + 1) {
+      throw new IllegalArgumentException(
+          "A position is " + MancalaModel.TOTAL_NUM_PITS + " pits and a side to move: " + text);
+    }
+    int[] board = new int[MancalaModel.TOTAL_NUM_PITS];
+    for (int i = 0; i < board.length; i++) {
+      board[i] = Integer.parseInt(parts[i]);
+    }
+    return GameState.of(board, parts[board.length].equalsIgnoreCase("A"));
+  }
+}
@@ -0,0 +1,1102 @@
+package ram.engine;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * The MancalaGameModel is the model portion of the MVC pattern. It has data related to the game and
+ * it updates the board when moves are made or undone.
+ *
+ * <p>The board has {@link #NUM_PITS_PER_PLAYER} pits per side unless another size is given to the
+ * constructor. The constants describe that standard board, which is the only one the views and
+ * {@link GameState} support.
+ *
+ * <p>The model is thread-safe without locks. The whole state of the game is an immutable {@link
+ * Snapshot}, and every move or undo builds a new one and publishes it with a compare-and-set,
+ * trying again if another thread published first. Each getter reads the latest snapshot; to read
+ * several values that belong together, take one with {@link #getSnapshot()} and read them from it.
+ *
+ * <p>Each snapshot carries the {@link Zobrist} key of its position. Moves, undos and redos update
+ * it along with each pit they change, so positions can be looked up in caches and tables without
+ * hashing the whole board.
+ *
+ * <p>Every move, undo, redo and finished game is counted by {@link GameMetrics}, except on models
+ * made with {@code isCounted} false to replay or analyze games, so only games people and engines
+ * actually play reach the totals.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class MancalaModel {
+  private final List<BoardListener> cListeners;
+  private final AtomicReference<Snapshot> snapshot; // the current board, turn and history
+
+  private final int numPitsPerPlayer;
+  private final int totalNumPits;
+  private final int aMancalaPos;
+  private final int bMancalaPos;
+  private final boolean isCounted; // whether GameMetrics counts this model's games
+
+  public static final int TOTAL_NUM_PITS = 14;
+  public static final int NUM_PITS_PER_PLAYER = TOTAL_NUM_PITS / 2 - 1;
+  public static final int A_MANCALA_POS = TOTAL_NUM_PITS / 2 - 1;
+  public static final int B_MANCALA_POS = TOTAL_NUM_PITS - 1;
+
+  private static final int MAX_UNDO_COUNT = 3;
+
+  public static final int A_WINNER = 0;
+  public static final int B_WINNER = 1;
+  public static final int TIE = 2;
+
+  /** Creates an instance of an empty Mancala Board. */
+  public MancalaModel() {
+    this(NUM_PITS_PER_PLAYER);
+  }
+
+  /**
+   * Creates an instance of an empty Mancala Board with a custom number of pits.
+   *
+   * @param numPitsPerPlayer the number of pits on each side, not counting the Mancalas
+   */
+  public MancalaModel(int numPitsPerPlayer) {
+    this(numPitsPerPlayer, true);
+  }
+
+  /**
+   * Creates an instance of an empty Mancala Board with a custom number of pits, which may be left
+   * out of {@link GameMetrics}.
+   *
+   * @param numPitsPerPlayer the number of pits on each side, not counting the Mancalas
+   * @param isCounted whether its moves, undos and games are counted, false for replays and analysis
+   */
+  public MancalaModel(int numPitsPerPlayer, boolean isCounted) {
+    if (numPitsPerPlayer < 1 || 2 * numPitsPerPlayer + 2 > MoveHistory.MAX_PITS) {
+      throw new IllegalArgumentException("Can't make a board with " + numPitsPerPlayer + " pits");
+    }
+    this.numPitsPerPlayer = numPitsPerPlayer;
+    totalNumPits = 2 * numPitsPerPlayer + 2;
+    aMancalaPos = numPitsPerPlayer;
+    bMancalaPos = totalNumPits - 1;
+    this.isCounted = isCounted;
+
+    /*
+     * 	    12 11 10 9 8 7
+     * 13                    6
+     *      0  1  2  3 4 5
+     *
+     * Where 6 and 13 are the Mancala pits for A and B, respectively
+     */
+    cListeners = new CopyOnWriteArrayList<>();
+
+    // 50-50 chance for who starts
+    boolean isPlayerATurn = Math.random() < 0.5f;
+    int[] board = new int[totalNumPits];
+    snapshot =
+        new AtomicReference<>(
+            new Snapshot(
+                board,
+                Zobrist.key(board, isPlayerATurn),
+                isPlayerATurn,
+                isPlayerATurn,
+                0,
+                0,
+                true,
+                0,
+                0,
+                isPlayerATurn,
+                MoveHistory.empty()));
+  }
+
+  /**
+   * Creates the Mancala board with the players' choice of stones per pit.
+   *
+   * @param numStones the number of stones per pit
+   */
+  public void setUpMancalaBoard(int numStones) {
+    update(
+        current ->
+            newGame(current, numStones, current.isPlayerATurn, current.isPlayerATurnPrevious));
+  }
+
+  /**
+   * Creates the Mancala board with the players' choice of stones per pit and first player.
+   *
+   * @param numStones the number of stones per pit
+   * @param isPlayerAFirst whether player A moves first
+   */
+  public void setUpMancalaBoard(int numStones, boolean isPlayerAFirst) {
+    update(current -> newGame(current, numStones, isPlayerAFirst, isPlayerAFirst));
+  }
+
+  private Snapshot newGame(
+      Snapshot current, int numStones, boolean isPlayerAFirst, boolean isPlayerATurnPrevious) {
+    if ((long) numStones * (totalNumPits - 2) > MoveHistory.MAX_STONES) {
+      throw new IllegalArgumentException("Too many stones: " + numStones);
+    }
+    int[] board = new int[totalNumPits];
+    for (int i = 0; i < totalNumPits; i++) {
+      if (i != aMancalaPos && i != bMancalaPos) {
+        board[i] = numStones;
+      } else {
+        board[i] = 0;
+      }
+    }
+    int sideStones = numPitsPerPlayer * numStones;
+    return new Snapshot(
+        board,
+        Zobrist.key(board, isPlayerAFirst),
+        isPlayerAFirst,
+        isPlayerATurnPrevious,
+        sideStones,
+        sideStones,
+        current.isJustUndo,
+        current.undoCount,
+        numStones,
+        isPlayerAFirst,
+        MoveHistory.empty());
+  }
+
+  /**
+   * Adds a BoardListener.
+   *
+   * @param cl BoardListener to be added
+   */
+  public void attach(BoardListener cl) {
+    cListeners.add(cl);
+  }
+
+  /** Tells the listeners the whole board may have changed. */
+  public void updateBoard() {
+    updateBoard(new BoardChangeEvent(this, null, snapshot.get()));
+  }
+
+  /**
+   * Sends a change to the listeners.
+   *
+   * @param e the change, which says which pits changed
+   */
+  private void updateBoard(BoardChangeEvent e) {
+    for (BoardListener cl : cListeners) {
+      cl.boardChanged(e);
+    }
+  }
+
+  /**
+   * Publishes a change to the current snapshot, applying it again to the newer snapshot if another
+   * thread published first.
+   *
+   * @param change builds the new snapshot from the current one, or returns it if nothing changes
+   * @return the event describing the change, or null if no new snapshot was published
+   */
+  private BoardChangeEvent update(UnaryOperator<Snapshot> change) {
+    while (true) {
+      Snapshot current = snapshot.get();
+      Snapshot next = change.apply(current);
+      if (next == current) {
+        return null;
+      }
+      if (snapshot.compareAndSet(current, next)) {
+        return new BoardChangeEvent(this, current, next);
+      }
+    }
+  }
+
+  /**
+   * By undoing the last move, it updates the board to the previous board (before the move was
+   * made).
+   */
+  public void undoMove() {
+    BoardChangeEvent undone =
+        update(
+            current -> {
+              // Check if can undo
+              if (current.isJustUndo
+                  || current.undoCount >= MAX_UNDO_COUNT
+                  || !current.history.canUndo()) {
+                return current;
+              }
+              Draft draft = new Draft(current);
+              draft.isJustUndo = true;
+              draft.undoCount++;
+
+              // Apply undo
+              long delta = draft.history.previousMove();
+              draft.history = draft.history.undo();
+              draft.unsow(delta);
+              return draft.toSnapshot();
+            });
+
+    // Update view
+    if (undone != null) {
+      if (isCounted) {
+        GameMetrics.moveUndone(undone.getAfter());
+      }
+      updateBoard(undone);
+    }
+  }
+
+  /**
+   * Takes back a player's last move and every move made since, so that player is to move again
+   * where they last moved. It counts as one undo and follows the same rules as {@link #undoMove()}.
+   * Against the computer, undoing only the computer's reply would just have it played again.
+   *
+   * @param isPlayerA whether to take back player A's last move rather than player B's
+   */
+  public void undoTurn(boolean isPlayerA) {
+    BoardChangeEvent undone =
+        update(
+            current -> {
+              if (current.isJustUndo
+                  || current.undoCount >= MAX_UNDO_COUNT
+                  || !current.history.canUndo()) {
+                return current;
+              }
+
+              // Find the player's last move, if they have made one
+              int ply = current.history.getPly() - 1;
+              while (ply >= 0 && MoveHistory.isPlayerA(current.history.get(ply)) != isPlayerA) {
+                ply--;
+              }
+              if (ply < 0) {
+                return current;
+              }
+              Draft draft = new Draft(current);
+              draft.isJustUndo = true;
+              draft.undoCount++;
+              while (draft.history.getPly() > ply) {
+                long delta = draft.history.previousMove();
+                draft.history = draft.history.undo();
+                draft.unsow(delta);
+              }
+              return draft.toSnapshot();
+            });
+    if (undone != null) {
+      if (isCounted) {
+        GameMetrics.moveUndone(undone.getAfter());
+      }
+      updateBoard(undone);
+    }
+  }
+
+  /** Plays again the last move that was undone, if no other move was made since. */
+  public void redoMove() {
+    BoardChangeEvent redone =
+        update(
+            current -> {
+              if (!current.history.canRedo()) {
+                return current;
+              }
+              Draft draft = new Draft(current);
+              boolean isPlayerAMove = draft.isPlayerATurn;
+              long delta = draft.history.nextMove();
+              draft.history = draft.history.redo();
+              draft.sow(MoveHistory.pit(delta));
+              draft.endMove(isPlayerAMove);
+              return draft.toSnapshot();
+            });
+    if (redone != null) {
+      if (isCounted) {
+        GameMetrics.moveRedone(redone.getAfter());
+      }
+      updateBoard(redone);
+    }
+  }
+
+  /**
+   * Plays again the undone moves up to a player's next turn, the reverse of {@link
+   * #undoTurn(boolean)}. It stops early if the recorded moves run out or the game ends.
+   *
+   * @param isPlayerA whether to stop when it is player A's turn rather than player B's
+   */
+  public void redoTurn(boolean isPlayerA) {
+    BoardChangeEvent redone =
+        update(
+            current -> {
+              if (!current.history.canRedo()) {
+                return current;
+              }
+              Draft draft = new Draft(current);
+              do {
+                boolean isPlayerAMove = draft.isPlayerATurn;
+                long delta = draft.history.nextMove();
+                draft.history = draft.history.redo();
+                draft.sow(MoveHistory.pit(delta));
+                draft.endMove(isPlayerAMove);
+              } while (draft.history.canRedo()
+                  && draft.isPlayerATurn != isPlayerA
+                  && draft.playerAStones > 0
+                  && draft.playerBStones > 0);
+              return draft.toSnapshot();
+            });
+    if (redone != null) {
+      if (isCounted) {
+        GameMetrics.moveRedone(redone.getAfter());
+      }
+      updateBoard(redone);
+    }
+  }
+
+  /**
+   * Undoes or redoes moves until the given number of moves have been played, one move at a time and
+   * without the limit on undos. The undo rules start again at the new ply as if the game had just
+   * been played to it: no undo has been used and the next one is allowed.
+   *
+   * @param ply the number of moves from the start of the game, up to {@link #getNumMoves()}
+   */
+  public void goToPly(int ply) {
+    BoardChangeEvent changed =
+        update(
+            current -> {
+              int size = current.history.size();
+              if (ply < 0 || ply > size) {
+                throw new IndexOutOfBoundsException("No ply " + ply + " in " + size + " moves");
+              }
+              if (ply == current.history.getPly()) {
+                return current;
+              }
+              Draft draft = new Draft(current);
+              while (draft.history.getPly() > ply) {
+                long delta = draft.history.previousMove();
+                draft.history = draft.history.undo();
+                draft.unsow(delta);
+              }
+              while (draft.history.getPly() < ply) {
+                long delta = draft.history.nextMove();
+                draft.history = draft.history.redo();
+                draft.sow(MoveHistory.pit(delta));
+              }
+              draft.isJustUndo = false;
+              draft.undoCount = 0;
+              draft.isPlayerATurnPrevious =
+                  ply > 0
+                      ? MoveHistory.isPlayerA(draft.history.get(ply - 1))
+                      : draft.isPlayerAFirst;
+              return draft.toSnapshot();
+            });
+    if (changed != null) {
+      updateBoard(changed);
+    }
+  }
+
+  /**
+   * Determines if the game is over.
+   *
+   * @return if game is over
+   */
+  public boolean gameOver() {
+    return snapshot.get().gameOver();
+  }
+
+  /**
+   * Returns the number of stones left in a player's pits, not counting their Mancala.
+   *
+   * @param isPlayerA whether to count player A's side rather than player B's
+   * @return the number of stones on that side
+   */
+  public int getStonesOnSide(boolean isPlayerA) {
+    return snapshot.get().getStonesOnSide(isPlayerA);
+  }
+
+  /**
+   * Returns the winner of the game.
+   *
+   * @return 0 if player A is winner, 1 if player B is winner, 2 if tie
+   */
+  public int getWinner() {
+    return snapshot.get().getWinner();
+  }
+
+  /**
+   * Performs a move on the specified pit. If several threads move at once, each move is applied to
+   * the board left by the one before it and must still be legal there.
+   *
+   * <p>Full laps around the board are sown all at once, so a move takes time proportional to the
+   * number of pits rather than the number of stones.
+   *
+   * @param index the index of the pit
+   */
+  public void move(int index) {
+    GameMetrics.MoveEvent event = isCounted ? new GameMetrics.MoveEvent() : null;
+    if (isCounted) {
+      event.begin();
+    }
+    BoardChangeEvent moved =
+        update(
+            current -> {
+              // Don't allow moves if no marbles in chosen pit or not player's turn
+              if (!current.isLegalMove(index)) {
+                return current;
+              }
+
+              Draft draft = new Draft(current);
+              boolean isPlayerAMove = draft.isPlayerATurn;
+              long delta = draft.sow(index);
+              draft.history = draft.history.record(delta);
+              draft.endMove(isPlayerAMove);
+              return draft.toSnapshot();
+            });
+
+    // Update view
+    if (moved != null) {
+      if (isCounted) {
+        Snapshot before = moved.getBefore();
+        Snapshot after = moved.getAfter();
+        GameMetrics.movePlayed(event, before, after, after.history.get(before.getPly()));
+      }
+      updateBoard(moved);
+    }
+  }
+
+  /**
+   * Returns the pit after the given one in sowing order.
+   *
+   * @param index the index of the pit
+   * @param opponentMancala the Mancala the player sowing skips
+   * @return the index of the next pit
+   */
+  private int nextPit(int index, int opponentMancala) {
+    int next = index + 1 == totalNumPits ? 0 : index + 1;
+    return next == opponentMancala ? nextPit(next, opponentMancala) : next;
+  }
+
+  /**
+   * Returns the current state of the game, which never changes once published.
+   *
+   * @return the latest snapshot
+   */
+  public Snapshot getSnapshot() {
+    return snapshot.get();
+  }
+
+  /**
+   * Returns the number of marbles in the specified pit.
+   *
+   * @param index the index of the pit
+   * @return the number of marbles in the specified pit
+   */
+  public int getMarbles(int index) {
+    return snapshot.get().getMarbles(index);
+  }
+
+  /**
+   * Returns whether it is Player A's turn.
+   *
+   * @return whether it is Player A's turn
+   */
+  public boolean isPlayerATurn() {
+    return snapshot.get().isPlayerATurn();
+  }
+
+  /**
+   * Returns whether {@link #move(int)} would play a pit now rather than ignore it.
+   *
+   * @param index the index of the pit
+   * @return whether the pit is on the side to move and has marbles in it
+   */
+  public boolean isLegalMove(int index) {
+    return snapshot.get().isLegalMove(index);
+  }
+
+  /**
+   * Returns the pits {@link #move(int)} would play now.
+   *
+   * @return bit {@code i} set if pit {@code i} is a legal move
+   */
+  public long getLegalMoves() {
+    return snapshot.get().getLegalMoves();
+  }
+
+  /**
+   * Returns the current position packed for the headless engines.
+   *
+   * @return the current board and turn as a GameState
+   */
+  public GameState getGameState() {
+    return snapshot.get().getGameState();
+  }
+
+  /**
+   * Returns the Zobrist key of the current position.
+   *
+   * @return the key of the board and turn
+   */
+  public long getKey() {
+    return snapshot.get().getKey();
+  }
+
+  /**
+   * Returns the number of stones per pit the current game started with.
+   *
+   * @return the starting number of stones per pit
+   */
+  public int getStartingStones() {
+    return snapshot.get().getStartingStones();
+  }
+
+  /**
+   * Returns whether player A moved first in the current game.
+   *
+   * @return whether player A moved first
+   */
+  public boolean isPlayerAFirst() {
+    return snapshot.get().isPlayerAFirst();
+  }
+
+  /**
+   * Returns the number of moves played to reach the current position.
+   *
+   * @return the current ply
+   */
+  public int getPly() {
+    return snapshot.get().getPly();
+  }
+
+  /**
+   * Returns the number of moves recorded, including undone moves that can still be redone.
+   *
+   * @return the number of moves
+   */
+  public int getNumMoves() {
+    return snapshot.get().getNumMoves();
+  }
+
+  /**
+   * Returns the pit chosen by a recorded move.
+   *
+   * @param ply the number of moves played before it
+   * @return the index of the pit
+   */
+  public int getMove(int ply) {
+    return snapshot.get().getMove(ply);
+  }
+
+  /**
+   * Returns the number of pits on each side, not counting the Mancalas.
+   *
+   * @return the number of pits per player
+   */
+  public int getNumPitsPerPlayer() {
+    return numPitsPerPlayer;
+  }
+
+  /**
+   * Returns the number of pits on the board, including both Mancalas.
+   *
+   * @return the total number of pits
+   */
+  public int getTotalNumPits() {
+    return totalNumPits;
+  }
+
+  /**
+   * Returns the index of player A's Mancala.
+   *
+   * @return the index of player A's Mancala
+   */
+  public int getAMancalaPos() {
+    return aMancalaPos;
+  }
+
+  /**
+   * Returns the index of player B's Mancala.
+   *
+   * @return the index of player B's Mancala
+   */
+  public int getBMancalaPos() {
+    return bMancalaPos;
+  }
+
+  /**
+   * Returns the number of remaining undos.
+   *
+   * @return the number of remaining undos
+   */
+  public int getUndoRemaining() {
+    return snapshot.get().getUndoRemaining();
+  }
+
+  /** The state of a game at one moment, which can be read from any thread as it never changes. */
+  public static final class Snapshot {
+    private final int[] board;
+    private final long key; // the Zobrist key of the board and turn
+    private final boolean isPlayerATurn;
+    private final boolean isPlayerATurnPrevious;
+    private final int playerAStones; // stones in each player's row
+    private final int playerBStones;
+    private final boolean isJustUndo;
+    private final int undoCount;
+    private final int startingStones; // how the game started
+    private final boolean isPlayerAFirst;
+    private final MoveHistory history; // the moves played, for undo and redo
+
+    private Snapshot(
+        int[] board,
+        long key,
+        boolean isPlayerATurn,
+        boolean isPlayerATurnPrevious,
+        int playerAStones,
+        int playerBStones,
+        boolean isJustUndo,
+        int undoCount,
+        int startingStones,
+        boolean isPlayerAFirst,
+        MoveHistory history) {
+      this.board = board;
+      this.key = key;
+      this.isPlayerATurn = isPlayerATurn;
+      this.isPlayerATurnPrevious = isPlayerATurnPrevious;
+      this.playerAStones = playerAStones;
+      this.playerBStones = playerBStones;
+      this.isJustUndo = isJustUndo;
+      this.undoCount = undoCount;
+      this.startingStones = startingStones;
+      this.isPlayerAFirst = isPlayerAFirst;
+      this.history = history;
+    }
+
+    /**
+     * Returns the number of marbles in the specified pit.
+     *
+     * @param index the index of the pit
+     * @return the number of marbles in the specified pit
+     */
+    public int getMarbles(int index) {
+      return board[index];
+    }
+
+    /**
+     * Returns whether it is Player A's turn.
+     *
+     * @return whether it is Player A's turn
+     */
+    public boolean isPlayerATurn() {
+      return isPlayerATurn;
+    }
+
+    /**
+     * Returns whether a pit can be played in this position.
+     *
+     * @param index the index of the pit
+     * @return whether the pit is on the side to move and has marbles in it
+     */
+    public boolean isLegalMove(int index) {
+      int mancala = board.length / 2 - 1;
+      return index >= 0
+          && index < board.length - 1
+          && index != mancala
+          && isPlayerATurn == index < mancala
+          && board[index] > 0;
+    }
+
+    /**
+     * Returns the pits that can be played in this position, on boards of up to 64 pits.
+     *
+     * @return bit {@code i} set if pit {@code i} is a legal move
+     */
+    public long getLegalMoves() {
+      if (board.length > Long.SIZE) {
+        throw new IllegalStateException("Only boards of up to 64 pits have a move mask");
+      }
+      long mask = 0;
+      for (int i = 0; i < board.length; i++) {
+        if (isLegalMove(i)) {
+          mask |= 1L << i;
+        }
+      }
+      return mask;
+    }
+
+    /**
+     * Determines if the game is over.
+     *
+     * @return if game is over
+     */
+    public boolean gameOver() {
+      // Game over if either player has all empty pits
+      return playerAStones == 0 || playerBStones == 0;
+    }
+
+    /**
+     * Returns the number of stones left in a player's pits, not counting their Mancala.
+     *
+     * @param isPlayerA whether to count player A's side rather than player B's
+     * @return the number of stones on that side
+     */
+    public int getStonesOnSide(boolean isPlayerA) {
+      return isPlayerA ? playerAStones : playerBStones;
+    }
+
+    /**
+     * Returns the winner of the game.
+     *
+     * @return 0 if player A is winner, 1 if player B is winner, 2 if tie
+     */
+    public int getWinner() {
+      int playerAStoneCount = board[board.length / 2 - 1];
+      int playerBStoneCount = board[board.length - 1];
+
+      // Winner is player with more stones
+      if (playerAStoneCount == playerBStoneCount) {
+        return TIE;
+      }
+      return playerAStoneCount > playerBStoneCount ? A_WINNER : B_WINNER;
+    }
+
+    /**
+     * Returns the position packed for the headless engines.
+     *
+     * @return the board and turn as a GameState
+     * @throws IllegalStateException if the board isn't the standard one or holds more than {@link
+     *     GameState#MAX_STONES} stones
+     */
+    public GameState getGameState() {
+      if (board.length != TOTAL_NUM_PITS) {
+        throw new IllegalStateException("Only the standard board can be packed");
+      }
+      int total = 0;
+      for (int stones : board) {
+        total += stones;
+      }
+      if (total > GameState.MAX_STONES) {
+        throw new IllegalStateException("Too many stones to pack: " + total);
+      }
+      return GameState.of(board, isPlayerATurn);
+    }
+
+    /**
+     * Returns the Zobrist key of the position, which equals {@link Zobrist#key(int[], boolean)} of
+     * the board and turn.
+     *
+     * @return the key
+     */
+    public long getKey() {
+      return key;
+    }
+
+    /**
+     * Returns the number of stones per pit the game started with.
+     *
+     * @return the starting number of stones per pit
+     */
+    public int getStartingStones() {
+      return startingStones;
+    }
+
+    /**
+     * Returns whether player A moved first.
+     *
+     * @return whether player A moved first
+     */
+    public boolean isPlayerAFirst() {
+      return isPlayerAFirst;
+    }
+
+    /**
+     * Returns the number of moves played to reach this position.
+     *
+     * @return the ply
+     */
+    public int getPly() {
+      return history.getPly();
+    }
+
+    /**
+     * Returns the number of moves recorded, including undone moves that can still be redone.
+     *
+     * @return the number of moves
+     */
+    public int getNumMoves() {
+      return history.size();
+    }
+
+    /**
+     * Returns the pit chosen by a recorded move.
+     *
+     * @param ply the number of moves played before it
+     * @return the index of the pit
+     */
+    public int getMove(int ply) {
+      return MoveHistory.pit(history.get(ply));
+    }
+
+    /**
+     * Returns a recorded move with what it captured and swept.
+     *
+     * @param ply the number of moves played before it
+     * @return the move as a {@link MoveHistory} delta
+     */
+    public long getDelta(int ply) {
+      return history.get(ply);
+    }
+
+    /**
+     * Returns the number of remaining undos.
+     *
+     * @return the number of remaining undos
+     */
+    public int getUndoRemaining() {
+      return MAX_UNDO_COUNT - undoCount;
+    }
+  }
+
+  /** A copy of a snapshot being changed by one move, undo or redo before it is published. */
+  private class Draft {
+    int[] board;
+    long key;
+    boolean isPlayerATurn;
+    boolean isPlayerATurnPrevious;
+    int playerAStones;
+    int playerBStones;
+    boolean isJustUndo;
+    int undoCount;
+    MoveHistory history;
+    final int startingStones;
+    final boolean isPlayerAFirst;
+
+    Draft(Snapshot snapshot) {
+      board = snapshot.board.clone();
+      key = snapshot.key;
+      isPlayerATurn = snapshot.isPlayerATurn;
+      isPlayerATurnPrevious = snapshot.isPlayerATurnPrevious;
+      playerAStones = snapshot.playerAStones;
+      playerBStones = snapshot.playerBStones;
+      isJustUndo = snapshot.isJustUndo;
+      undoCount = snapshot.undoCount;
+      history = snapshot.history;
+      startingStones = snapshot.startingStones;
+      isPlayerAFirst = snapshot.isPlayerAFirst;
+    }
+
+    Snapshot toSnapshot() {
+      return new Snapshot(
+          board,
+          key,
+          isPlayerATurn,
+          isPlayerATurnPrevious,
+          playerAStones,
+          playerBStones,
+          isJustUndo,
+          undoCount,
+          startingStones,
+          isPlayerAFirst,
+          history);
+    }
+
+    /**
+     * Sows the stones of a pit, then makes any capture, ends the game if a side is empty and passes
+     * the turn.
+     *
+     * @param index the index of the pit
+     * @return the move as a {@link MoveHistory} delta
+     */
+    private long sow(int index) {
+      int ownMancala = isPlayerATurn ? aMancalaPos : bMancalaPos;
+      int opponentMancala = isPlayerATurn ? bMancalaPos : aMancalaPos;
+      int stonesToDrop = board[index]; // number of stones in selected pit
+      addToSide(index, -stonesToDrop);
+      setPit(index, 0); // set pit to 0 (get stones)
+
+      // Every pit but the opponent's Mancala gets one stone per full lap
+      int lapLength = totalNumPits - 1;
+      int laps = stonesToDrop / lapLength;
+      if (laps > 0) {
+        for (int i = 0; i < totalNumPits; i++) {
+          if (i != opponentMancala) {
+            setPit(i, board[i] + laps);
+          }
+        }
+        playerAStones += laps * numPitsPerPlayer;
+        playerBStones += laps * numPitsPerPlayer;
+      }
+
+      // Then the rest go one by one, skipping the opponent's Mancala. Whole laps end in the pit
+      // they began from.
+      int lastIndex = index;
+      for (int i = stonesToDrop % lapLength; i > 0; i--) {
+        lastIndex = nextPit(lastIndex, opponentMancala);
+        setPit(lastIndex, board[lastIndex] + 1);
+        addToSide(lastIndex, 1);
+      }
+
+      // Edge case 1: if last stone is in own Mancala => another turn
+      boolean dropInOwnMancala = lastIndex == ownMancala;
+
+      /* Edge case 3: if last stone is in empty pit on your side => take stone and stones from
+       * opposite side of opponent's pit and put in your Mancala
+       */
+      boolean isOwnPit =
+          isPlayerATurn
+              ? lastIndex < aMancalaPos
+              : lastIndex > aMancalaPos && lastIndex < bMancalaPos;
+      int oppositeIndex = bMancalaPos - 1 - lastIndex;
+      int oppositeStoneCount = 0;
+      if (isOwnPit && board[lastIndex] == 1 && board[oppositeIndex] > 0) {
+        oppositeStoneCount = board[oppositeIndex];
+        setPit(oppositeIndex, 0);
+        addToSide(oppositeIndex, -oppositeStoneCount);
+        setPit(ownMancala, board[ownMancala] + 1 + oppositeStoneCount);
+        setPit(lastIndex, 0);
+        addToSide(lastIndex, -1);
+      }
+
+      // Game over, all marbles left in pits go to respective mancalas
+      int swept = 0;
+      if (playerAStones == 0 || playerBStones == 0) {
+        // Only one side can still have stones
+        if (playerAStones > 0) {
+          history = history.saveSweep(board, 0, aMancalaPos);
+          setPit(aMancalaPos, board[aMancalaPos] + playerAStones);
+          clearPits(0, aMancalaPos);
+          playerAStones = 0;
+          swept = 1;
+        } else if (playerBStones > 0) {
+          history = history.saveSweep(board, aMancalaPos + 1, bMancalaPos);
+          setPit(bMancalaPos, board[bMancalaPos] + playerBStones);
+          clearPits(aMancalaPos + 1, bMancalaPos);
+          playerBStones = 0;
+          swept = 2;
+        }
+      }
+
+      long delta =
+          MoveHistory.encode(index, isPlayerATurn, stonesToDrop, oppositeStoneCount, swept);
+
+      // Change turns if not drop in own mancala
+      if (!dropInOwnMancala) {
+        setPlayerATurn(!isPlayerATurn);
+      }
+      return delta;
+    }
+
+    /**
+     * Takes back a move made by {@link #sow(int)}, in reverse order.
+     *
+     * @param delta the move as a {@link MoveHistory} delta
+     */
+    private void unsow(long delta) {
+      int index = MoveHistory.pit(delta);
+      boolean isPlayerAMove = MoveHistory.isPlayerA(delta);
+      int ownMancala = isPlayerAMove ? aMancalaPos : bMancalaPos;
+      int opponentMancala = isPlayerAMove ? bMancalaPos : aMancalaPos;
+      int stonesToDrop = MoveHistory.stones(delta);
+
+      // Take the swept stones back out of the Mancala
+      int swept = MoveHistory.swept(delta);
+      if (swept != 0) {
+        int from = swept == 1 ? 0 : aMancalaPos + 1;
+        int to = swept == 1 ? aMancalaPos : bMancalaPos;
+        for (int i = from; i < to; i++) {
+          key ^= Zobrist.key(i, board[i]); // the row's keys are replaced along with its stones
+        }
+        history = history.restoreSweep(board, from, to);
+        for (int i = from; i < to; i++) {
+          key ^= Zobrist.key(i, board[i]);
+          setPit(to, board[to] - board[i]);
+          addToSide(i, board[i]);
+        }
+      }
+
+      // Pick up the stones sown one by one, then the full laps
+      int lapLength = totalNumPits - 1;
+      int lastIndex = index;
+      for (int i = stonesToDrop % lapLength; i > 0; i--) {
+        lastIndex = nextPit(lastIndex, opponentMancala);
+        setPit(lastIndex, board[lastIndex] - 1);
+        addToSide(lastIndex, -1);
+      }
+      int laps = stonesToDrop / lapLength;
+      if (laps > 0) {
+        for (int i = 0; i < totalNumPits; i++) {
+          if (i != opponentMancala) {
+            setPit(i, board[i] - laps);
+          }
+        }
+        playerAStones -= laps * numPitsPerPlayer;
+        playerBStones -= laps * numPitsPerPlayer;
+      }
+
+      // Give the captured stones back to both pits
+      int oppositeStoneCount = MoveHistory.captured(delta);
+      if (oppositeStoneCount > 0) {
+        int oppositeIndex = bMancalaPos - 1 - lastIndex;
+        setPit(ownMancala, board[ownMancala] - 1 - oppositeStoneCount);
+        setPit(oppositeIndex, board[oppositeIndex] + oppositeStoneCount);
+        addToSide(oppositeIndex, oppositeStoneCount);
+        setPit(lastIndex, board[lastIndex] + 1);
+        addToSide(lastIndex, 1);
+      }
+
+      setPit(index, board[index] + stonesToDrop);
+      addToSide(index, stonesToDrop);
+      setPlayerATurn(isPlayerAMove);
+    }
+
+    /**
+     * Updates the undo rules after a move.
+     *
+     * @param isPlayerAMove whether player A made the move
+     */
+    private void endMove(boolean isPlayerAMove) {
+      // Reset undo count
+      if (isPlayerAMove != isPlayerATurnPrevious) {
+        undoCount = 0;
+      }
+
+      // Save previous turn
+      isPlayerATurnPrevious = isPlayerAMove;
+
+      // Allow undo
+      isJustUndo = false;
+    }
+
+    /**
+     * Changes the number of stones in a pit and updates the key to match.
+     *
+     * @param index the index of the pit
+     * @param stones the new number of stones
+     */
+    private void setPit(int index, int stones) {
+      key ^= Zobrist.key(index, board[index]) ^ Zobrist.key(index, stones);
+      board[index] = stones;
+    }
+
+    /**
+     * Empties a run of pits and updates the key to match.
+     *
+     * @param from the index of the first pit
+     * @param to the index after the last pit
+     */
+    private void clearPits(int from, int to) {
+      for (int i = from; i < to; i++) {
+        setPit(i, 0);
+      }
+    }
+
+    /**
+     * Changes whose turn it is and updates the key to match.
+     *
+     * @param isPlayerATurn whether it is now player A's turn
+     */
+    private void setPlayerATurn(boolean isPlayerATurn) {
+      if (this.isPlayerATurn != isPlayerATurn) {
+        key ^= Zobrist.PLAYER_A_TURN;
+        this.isPlayerATurn = isPlayerATurn;
+      }
+    }
+
+    /**
+     * Adds stones to the total of the side a pit is on, if it isn't a Mancala.
+     *
+     * @param index the index of the pit
+     * @param count the number of stones added, negative if taken away
+     */
+    private void addToSide(int index, int count) {
+      if (index < aMancalaPos) {
+        playerAStones += count;
+      } else if (index > aMancalaPos && index < bMancalaPos) {
+        playerBStones += count;
+      }
+    }
+  }
+}
@@ -0,0 +1,257 @@
+package ram.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A computer player that uses Monte Carlo tree search with UCT selection and random playouts over
+ * packed {@link GameState}s. Tree nodes are pooled in parallel primitive arrays instead of one
+ * object per node, so millions of playouts don't put pressure on the garbage collector.
+ *
+ * <p>With more than one thread the search is root-parallel: every thread grows its own tree from
+ * the same position and the root visit counts are summed. Each tree draws from its own random
+ * generator split from a single seed and runs a fixed number of playouts, so the chosen move is the
+ * same for the same seed no matter how the threads are scheduled.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class MctsEngine {
+  public static final int DEFAULT_CAPACITY = 1 << 20;
+  public static final double EXPLORATION = Math.sqrt(2);
+
+  private final Tree[] trees;
+  private final ForkJoinPool pool;
+  private long playouts;
+  private long elapsedMillis;
+
+  /**
+   * Creates a single-threaded engine.
+   *
+   * @param seed the seed for the playout random generator
+   */
+  public MctsEngine(long seed) {
+    this(1, DEFAULT_CAPACITY, seed);
+  }
+
+  /**
+   * Creates an engine that searches one tree per thread.
+   *
+   * @param threads the number of trees searched in parallel
+   * @param capacity the maximum number of nodes in each tree
+   * @param seed the seed the random generator of every tree is split from
+   */
+  public MctsEngine(int threads, int capacity, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    trees = new Tree[threads];
+    for (int i = 0; i < threads; i++) {
+      trees[i] = new Tree(capacity, random.split());
+    }
+    pool = threads > 1 ? new ForkJoinPool(threads) : null;
+  }
+
+  /**
+   * Finds the root move visited most often after the given number of playouts per tree.
+   *
+   * @param state the position to move from
+   * @param playoutsPerTree the number of playouts each tree runs
+   * @return the index of the best pit, or -1 if the game is over
+   */
+  public int findBestMove(GameState state, int playoutsPerTree) {
+    long start = System.currentTimeMillis();
+    if (pool == null) {
+      trees[0].search(state.getLo(), state.getHi(), playoutsPerTree);
+    } else {
+      List<ForkJoinTask<?>> tasks = new ArrayList<>(trees.length);
+      for (Tree tree : trees) {
+        tasks.add(
+            ForkJoinTask.adapt(() -> tree.search(state.getLo(), state.getHi(), playoutsPerTree)));
+      }
+      pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+    }
+
+    // Sum the root visits over all trees
+    int[] visits = new int[MancalaModel.TOTAL_NUM_PITS];
+    for (Tree tree : trees) {
+      for (int child = tree.firstChild[0]; child >= 0; child = tree.nextSibling[child]) {
+        visits[tree.moves[child]] += tree.visits[child];
+      }
+    }
+    int bestMove = -1;
+    for (int pit = 0; pit < visits.length; pit++) {
+      if (visits[pit] > 0 && (bestMove < 0 || visits[pit] > visits[bestMove])) {
+        bestMove = pit;
+      }
+    }
+
+    playouts = (long) playoutsPerTree * trees.length;
+    elapsedMillis = System.currentTimeMillis() - start;
+    return bestMove;
+  }
+
+  /** Stops the search threads. */
+  public void shutdown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Returns the number of playouts run by the last search, over all trees.
+   *
+   * @return the playout count
+   */
+  public long getPlayouts() {
+    return playouts;
+  }
+
+  /**
+   * Returns the wall-clock time of the last search.
+   *
+   * @return the elapsed time in milliseconds
+   */
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  /**
+   * Returns a uniformly chosen set bit of a mask.
+   *
+   * @param mask a non-zero mask
+   * @param random the random generator
+   * @return the index of the chosen bit
+   */
+  static int randomBit(int mask, SplittableRandom random) {
+    for (int skip = random.nextInt(Integer.bitCount(mask)); skip > 0; skip--) {
+      mask &= mask - 1;
+    }
+    return Integer.numberOfTrailingZeros(mask);
+  }
+
+  /**
+   * Returns player A's result of a finished game.
+   *
+   * @return 1 for a win, 0.5 for a tie and 0 for a loss
+   */
+  static double result(long lo, long hi) {
+    int playerAStoneCount = GameState.stones(lo, hi, MancalaModel.A_MANCALA_POS);
+    int playerBStoneCount = GameState.stones(lo, hi, MancalaModel.B_MANCALA_POS);
+    if (playerAStoneCount == playerBStoneCount) {
+      return 0.5;
+    }
+    return playerAStoneCount > playerBStoneCount ? 1 : 0;
+  }
+
+  /** One search tree, with its nodes stored column-wise in primitive arrays. */
+  private static class Tree {
+    final long[] los;
+    final long[] his;
+    final int[] parents;
+    final int[] firstChild;
+    final int[] nextSibling;
+    final int[] untried; // bitmask of moves not yet expanded
+    final int[] visits;
+    final double[] winsA; // sum of player A's results through this node
+    final byte[] moves; // the move leading to this node
+    final SplittableRandom random;
+    final long[] scratch = new long[2];
+    int size;
+
+    Tree(int capacity, SplittableRandom random) {
+      los = new long[capacity];
+      his = new long[capacity];
+      parents = new int[capacity];
+      firstChild = new int[capacity];
+      nextSibling = new int[capacity];
+      untried = new int[capacity];
+      visits = new int[capacity];
+      winsA = new double[capacity];
+      moves = new byte[capacity];
+      this.random = random;
+    }
+
+    /** Grows a fresh tree from a position with a fixed number of playouts. */
+    void search(long lo, long hi, int playouts) {
+      size = 0;
+      addNode(-1, -1, lo, hi);
+
+      for (int i = 0; i < playouts; i++) {
+        // Select down the tree, expanding one untried move if there is room
+        int node = 0;
+        while (!GameState.gameOver(los[node], his[node])) {
+          if (untried[node] != 0 && size < los.length) {
+            node = expand(node);
+            break;
+          }
+          if (firstChild[node] < 0) {
+            break;
+          }
+          node = select(node);
+        }
+
+        double result = playout(los[node], his[node]);
+
+        // Back up the result to the root
+        for (; node >= 0; node = parents[node]) {
+          visits[node]++;
+          winsA[node] += result;
+        }
+      }
+    }
+
+    int addNode(int parent, int move, long lo, long hi) {
+      int node = size++;
+      los[node] = lo;
+      his[node] = hi;
+      parents[node] = parent;
+      firstChild[node] = -1;
+      nextSibling[node] = -1;
+      untried[node] = GameState.gameOver(lo, hi) ? 0 : GameState.legalMoves(lo, hi);
+      visits[node] = 0;
+      winsA[node] = 0;
+      moves[node] = (byte) move;
+      return node;
+    }
+
+    int expand(int node) {
+      int move = randomBit(untried[node], random);
+      untried[node] &= ~(1 << move);
+      GameState.play(los[node], his[node], move, scratch, 0);
+      int child = addNode(node, move, scratch[0], scratch[1]);
+      nextSibling[child] = firstChild[node];
+      firstChild[node] = child;
+      return child;
+    }
+
+    /** Picks the child with the highest upper confidence bound for the side to move. */
+    int select(int node) {
+      boolean isPlayerATurn = GameState.isPlayerATurn(his[node]);
+      double logVisits = Math.log(visits[node]);
+      int best = -1;
+      double bestBound = Double.NEGATIVE_INFINITY;
+      for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+        double mean = winsA[child] / visits[child];
+        double bound =
+            (isPlayerATurn ? mean : 1 - mean)
+                + EXPLORATION * Math.sqrt(logVisits / visits[child]);
+        if (bound > bestBound) {
+          bestBound = bound;
+          best = child;
+        }
+      }
+      return best;
+    }
+
+    /** Plays uniformly random moves to the end of the game. */
+    double playout(long lo, long hi) {
+      while (!GameState.gameOver(lo, hi)) {
+        GameState.play(lo, hi, randomBit(GameState.legalMoves(lo, hi), random), scratch, 0);
+        lo = scratch[0];
+        hi = scratch[1];
+      }
+      return result(lo, hi);
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package ram.engine;
+
+/**
+ * A class which defines a concrete strategy for the Strategy pattern. In this case, it plays the
+ * move a single-threaded {@link MctsEngine} finds with a fixed number of playouts.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class MctsPolicy implements MovePolicy {
+  private final MctsEngine engine;
+  private final int playouts;
+
+  /**
+   * Creates a Monte Carlo tree search policy.
+   *
+   * @param playouts the number of playouts for every move
+   * @param seed the seed for the playout random generator
+   */
+  public MctsPolicy(int playouts, long seed) {
+    engine = new MctsEngine(1, playouts + 1, seed);
+    this.playouts = playouts;
+  }
+
+  @Override
+  public int chooseMove(long lo, long hi) {
+    return engine.findBestMove(GameState.of(lo, hi), playouts);
+  }
+}
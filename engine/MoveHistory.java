@@ -0,0 +1,278 @@
+package ram.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The moves of a game as compact deltas, one long per move, for undoing and redoing them on a
+ * {@link MancalaModel}. A delta holds what the board can't tell after the move: the pit sown, how
+ * many stones it held, who moved, how many stones were captured and which row was swept at the end
+ * of the game. The stones of a swept row are the only thing kept apart, since a game ends at most
+ * once.
+ *
+ * <p>Moves past the current ply stay recorded for redo until a new move replaces them.
+ *
+ * <p>A history is immutable: every change returns a new one, so a snapshot of the model can hold
+ * it without copying. Histories share their array of moves, and a move is appended in place only
+ * by the first history to claim the next slot, so older histories never see their moves change.
+ * Every other append copies the array.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public final class MoveHistory {
+  public static final int MAX_PITS = 1 << 12;
+  public static final int MAX_STONES = (1 << 24) - 1;
+
+  // Layout of a delta, from the low bits up
+  private static final long PLAYER_A = 1L << 12;
+  private static final long SWEPT_A = 1L << 13;
+  private static final long SWEPT_B = 1L << 14;
+  private static final int STONES_SHIFT = 15;
+  private static final int CAPTURED_SHIFT = 39;
+  private static final long COUNT_MASK = MAX_STONES;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final long[] moves;
+  private final AtomicInteger claimed; // slots of the array taken, shared by every history using it
+  private final int size;
+  private final int ply;
+  private final Sweep sweeps;
+
+  /** The stones of a swept row, on a stack of rows in the order they were swept. */
+  private static final class Sweep {
+    final int[] row;
+    final Sweep next;
+
+    Sweep(int[] row, Sweep next) {
+      this.row = row;
+      this.next = next;
+    }
+  }
+
+  private MoveHistory(long[] moves, AtomicInteger claimed, int size, int ply, Sweep sweeps) {
+    this.moves = moves;
+    this.claimed = claimed;
+    this.size = size;
+    this.ply = ply;
+    this.sweeps = sweeps;
+  }
+
+  /**
+   * Returns a history with no moves.
+   *
+   * @return an empty history
+   */
+  public static MoveHistory empty() {
+    return new MoveHistory(new long[INITIAL_CAPACITY], new AtomicInteger(), 0, 0, null);
+  }
+
+  /**
+   * Packs a move into a delta.
+   *
+   * @param pit the index of the pit sown
+   * @param isPlayerA whether player A made the move
+   * @param stones the number of stones sown
+   * @param captured the number of the opponent's stones captured, or 0
+   * @param swept 1 if player A's row was swept into their Mancala, 2 for player B's, else 0
+   * @return the delta
+   */
+  public static long encode(int pit, boolean isPlayerA, int stones, int captured, int swept) {
+    return pit
+        | (isPlayerA ? PLAYER_A : 0)
+        | (swept == 1 ? SWEPT_A : swept == 2 ? SWEPT_B : 0)
+        | (long) stones << STONES_SHIFT
+        | (long) captured << CAPTURED_SHIFT;
+  }
+
+  /**
+   * Returns the pit sown by a move.
+   *
+   * @param delta the move
+   * @return the index of the pit
+   */
+  public static int pit(long delta) {
+    return (int) delta & (MAX_PITS - 1);
+  }
+
+  /**
+   * Returns whether player A made a move.
+   *
+   * @param delta the move
+   * @return whether it was player A's move
+   */
+  public static boolean isPlayerA(long delta) {
+    return (delta & PLAYER_A) != 0;
+  }
+
+  /**
+   * Returns the number of stones sown by a move.
+   *
+   * @param delta the move
+   * @return the stones that were in the pit
+   */
+  public static int stones(long delta) {
+    return (int) (delta >>> STONES_SHIFT & COUNT_MASK);
+  }
+
+  /**
+   * Returns the number of the opponent's stones a move captured.
+   *
+   * @param delta the move
+   * @return the stones captured, or 0 if there was no capture
+   */
+  public static int captured(long delta) {
+    return (int) (delta >>> CAPTURED_SHIFT & COUNT_MASK);
+  }
+
+  /**
+   * Returns which row a move swept into its Mancala by ending the game.
+   *
+   * @param delta the move
+   * @return 1 for player A's row, 2 for player B's, or 0 if the game went on
+   */
+  public static int swept(long delta) {
+    return (delta & SWEPT_A) != 0 ? 1 : (delta & SWEPT_B) != 0 ? 2 : 0;
+  }
+
+  /**
+   * Records a move at the current ply, dropping any moves that could have been redone.
+   *
+   * @param delta the move
+   * @return the history with the move played
+   */
+  public MoveHistory record(long delta) {
+    long[] array = moves;
+    AtomicInteger owner = claimed;
+    if (ply == moves.length || !claimed.compareAndSet(ply, ply + 1)) {
+      // The slot is taken by a move of another history, or there is none left
+      array = Arrays.copyOf(moves, ply == moves.length ? 2 * moves.length : moves.length);
+      owner = new AtomicInteger(ply + 1);
+    }
+    array[ply] = delta;
+    return new MoveHistory(array, owner, ply + 1, ply + 1, sweeps);
+  }
+
+  /**
+   * Saves the stones of a row before it is swept into its Mancala.
+   *
+   * @param board the board
+   * @param from the index of the row's first pit
+   * @param to the index after the row's last pit
+   * @return the history holding the row
+   */
+  public MoveHistory saveSweep(int[] board, int from, int to) {
+    return new MoveHistory(
+        moves, claimed, size, ply, new Sweep(Arrays.copyOfRange(board, from, to), sweeps));
+  }
+
+  /**
+   * Puts back the stones of the last row saved by {@link #saveSweep(int[], int, int)}.
+   *
+   * @param board the board
+   * @param from the index of the row's first pit
+   * @param to the index after the row's last pit
+   * @return the history without the row
+   */
+  public MoveHistory restoreSweep(int[] board, int from, int to) {
+    System.arraycopy(sweeps.row, 0, board, from, to - from);
+    return new MoveHistory(moves, claimed, size, ply, sweeps.next);
+  }
+
+  /**
+   * Returns the move that led to the current ply.
+   *
+   * @return the move to undo
+   */
+  public long previousMove() {
+    if (!canUndo()) {
+      throw new IllegalStateException("No move to undo");
+    }
+    return moves[ply - 1];
+  }
+
+  /**
+   * Returns the move after the current ply.
+   *
+   * @return the move to redo
+   */
+  public long nextMove() {
+    if (!canRedo()) {
+      throw new IllegalStateException("No move to redo");
+    }
+    return moves[ply];
+  }
+
+  /**
+   * Steps back one move.
+   *
+   * @return the history at the previous ply
+   */
+  public MoveHistory undo() {
+    if (!canUndo()) {
+      throw new IllegalStateException("No move to undo");
+    }
+    return new MoveHistory(moves, claimed, size, ply - 1, sweeps);
+  }
+
+  /**
+   * Steps forward one move.
+   *
+   * @return the history at the next ply
+   */
+  public MoveHistory redo() {
+    if (!canRedo()) {
+      throw new IllegalStateException("No move to redo");
+    }
+    return new MoveHistory(moves, claimed, size, ply + 1, sweeps);
+  }
+
+  /**
+   * Returns whether there is a move before the current ply.
+   *
+   * @return whether a move can be undone
+   */
+  public boolean canUndo() {
+    return ply > 0;
+  }
+
+  /**
+   * Returns whether there is a move after the current ply.
+   *
+   * @return whether a move can be redone
+   */
+  public boolean canRedo() {
+    return ply < size;
+  }
+
+  /**
+   * Returns the number of moves played to reach the current position.
+   *
+   * @return the current ply
+   */
+  public int getPly() {
+    return ply;
+  }
+
+  /**
+   * Returns the number of moves recorded, including those that can be redone.
+   *
+   * @return the number of moves
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a recorded move.
+   *
+   * @param ply the number of moves played before it
+   * @return the move
+   */
+  public long get(int ply) {
+    if (ply < 0 || ply >= size) {
+      throw new IndexOutOfBoundsException("No move at ply " + ply);
+    }
+    return moves[ply];
+  }
+}
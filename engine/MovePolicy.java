@@ -0,0 +1,44 @@
+package ram.engine;
+
+/**
+ * An interface for the Strategy Pattern. A move policy picks the move to play in a packed {@link
+ * GameState} position, so the batch simulator can pit different players against each other.
+ * Policies may keep state such as a random generator or a search engine, so each thread needs its
+ * own.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public interface MovePolicy {
+  /**
+   * Chooses a move for the side to move.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return the index of a legal pit
+   */
+  int chooseMove(long lo, long hi);
+
+  /**
+   * Creates a policy from its name: {@code random}, {@code greedy}, {@code alphabeta:<depth>} or
+   * {@code mcts:<playouts>}.
+   *
+   * @param name the name of the policy
+   * @param seed the seed for any randomness the policy uses
+   * @return the policy
+   */
+  static MovePolicy create(String name, long seed) {
+    String[] parts = name.split(":");
+    switch (parts[0]) {
+      case "random":
+        return new RandomPolicy(seed);
+      case "greedy":
+        return new GreedyPolicy();
+      case "alphabeta":
+        return new AlphaBetaPolicy(parts.length > 1 ? Integer.parseInt(parts[1]) : 8);
+      case "mcts":
+        return new MctsPolicy(parts.length > 1 ? Integer.parseInt(parts[1]) : 1000, seed);
+      default:
+        throw new IllegalArgumentException("Unknown move policy: " + name);
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package ram.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An opening book built by {@link OpeningBookBuilder} and read through a memory-mapped file. It
+ * holds the best move and score found by a deep search of every position in the first plies of a
+ * game, so an engine can play them without searching. Only the parts of the file that lookups
+ * touch are ever read from disk.
+ *
+ * <p>Entries are keyed by the {@linkplain GameState#getCanonicalKey() canonical key} of their
+ * position, so one entry serves a position and its mirror, and sorted by key so a lookup is a
+ * binary search. Keys are 64 bits and not checked against the position, but every move found is
+ * checked to be legal.
+ *
+ * <p>File layout: the 8-byte {@link #MAGIC}, the int format {@link #VERSION}, the int number of
+ * entries, then the entries in increasing order of their key as a signed long. An entry is the
+ * long key, the short score from the side to move's point of view, the byte pit of the best move
+ * in the canonical form and the byte search depth.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class OpeningBook {
+  public static final long MAGIC = 0x4D4E434C424F4F4BL; // "MNCLBOOK"
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 16;
+  public static final int ENTRY_SIZE = 12;
+  public static final String DEFAULT_FILE_NAME = "opening.book";
+
+  private static final int SCORE_OFFSET = 8;
+  private static final int MOVE_OFFSET = 10;
+  private static final int DEPTH_OFFSET = 11;
+
+  private final ByteBuffer entries;
+  private final int size;
+
+  private OpeningBook(ByteBuffer entries, int size) {
+    this.entries = entries;
+    this.size = size;
+  }
+
+  /**
+   * Maps a book file into memory.
+   *
+   * @param file the file written by {@link OpeningBookBuilder}
+   * @return the book
+   * @throws IOException if the file can't be read or is not a book
+   */
+  public static OpeningBook open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.limit() < HEADER_SIZE || buffer.getLong(0) != MAGIC) {
+        throw new IOException(file + " is not an opening book");
+      }
+      if (buffer.getInt(8) != VERSION) {
+        throw new IOException(file + " is in an older format, so it must be built again");
+      }
+      int size = buffer.getInt(12);
+      if (buffer.limit() != HEADER_SIZE + (long) size * ENTRY_SIZE) {
+        throw new IOException(file + " is truncated");
+      }
+      return new OpeningBook(buffer, size);
+    }
+  }
+
+  /**
+   * Returns the number of positions in the book.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns whether a position is in the book.
+   *
+   * @param state the position
+   * @return whether the book has an entry for it or its mirror
+   */
+  public boolean contains(GameState state) {
+    return find(state.getCanonicalKey()) >= 0;
+  }
+
+  /**
+   * Returns the best move of a position.
+   *
+   * @param state the position
+   * @return the index of the best pit, or -1 if the position is not in the book
+   */
+  public int bestMove(GameState state) {
+    int entry = find(state.getCanonicalKey());
+    if (entry < 0) {
+      return -1;
+    }
+    int move = GameState.canonicalPit(entries.get(entry + MOVE_OFFSET), state.getHi());
+    return state.isLegal(move) ? move : -1;
+  }
+
+  /**
+   * Returns the score of a position.
+   *
+   * @param state a position the book {@link #contains(GameState)}
+   * @return the final store difference expected, from the side to move's point of view
+   */
+  public int score(GameState state) {
+    return entries.getShort(find(state.getCanonicalKey()) + SCORE_OFFSET);
+  }
+
+  /**
+   * Returns how deep a position was searched.
+   *
+   * @param state a position the book {@link #contains(GameState)}
+   * @return the depth of the search
+   */
+  public int depth(GameState state) {
+    return entries.get(find(state.getCanonicalKey()) + DEPTH_OFFSET);
+  }
+
+  /**
+   * Finds the entry of a key by binary search.
+   *
+   * @param key the canonical key
+   * @return the offset of the entry in the file, or -1 if there is none
+   */
+  private int find(long key) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int offset = HEADER_SIZE + middle * ENTRY_SIZE;
+      long middleKey = entries.getLong(offset);
+      if (middleKey < key) {
+        low = middle + 1;
+      } else if (middleKey > key) {
+        high = middle - 1;
+      } else {
+        return offset;
+      }
+    }
+    return -1;
+  }
+}
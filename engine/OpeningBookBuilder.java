@@ -0,0 +1,214 @@
+package ram.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds an {@link OpeningBook} file. Every position a game can reach in its first plies is
+ * collected, in canonical form so a position and its mirror are searched once, and each is searched
+ * to a fixed depth with an {@link AlphaBetaEngine}. The searches are split across the cores of a
+ * {@link ForkJoinPool}. Each search starts from an empty transposition table, so the book is the
+ * same however the work is split.
+ *
+ * <p>Usage: {@code java ram.engine.OpeningBookBuilder [--plies N] [--depth N] [--stones 3,4]
+ * [--threads N] [--file FILE]}. The number of positions grows about fivefold with each ply, and
+ * the time per position about twofold with each ply of depth.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class OpeningBookBuilder {
+  private static final int TABLE_SIZE_LOG2 = 18;
+  private static final int MIN_TASK_SIZE = 16;
+
+  private final int depth;
+  private final GameState[] positions;
+  private final int[] scores;
+  private final int[] moves;
+  private final ForkJoinPool pool;
+  private final ThreadLocal<TranspositionTable> tables =
+      ThreadLocal.withInitial(() -> new TranspositionTable(TABLE_SIZE_LOG2));
+
+  /**
+   * Creates a builder and collects the positions to search.
+   *
+   * @param plies the number of moves from the start of a game to cover
+   * @param depth the depth to search every position to
+   * @param stoneCounts the numbers of stones per pit games start with
+   * @param threads the number of threads to search with
+   */
+  public OpeningBookBuilder(int plies, int depth, int[] stoneCounts, int threads) {
+    if (depth < 1 || depth > AlphaBetaEngine.MAX_PLY) {
+      throw new IllegalArgumentException("Can't search to depth " + depth);
+    }
+    this.depth = depth;
+    Map<GameState, Integer> found = new HashMap<>();
+    for (int numStones : stoneCounts) {
+      collect(GameState.initial(numStones, true), plies, found);
+    }
+    positions = found.keySet().toArray(new GameState[0]);
+    scores = new int[positions.length];
+    moves = new int[positions.length];
+    pool = new ForkJoinPool(threads);
+  }
+
+  /**
+   * Adds the canonical forms of a position and of those reachable from it.
+   *
+   * @param state the position
+   * @param plies the number of moves still to follow
+   * @param found the positions collected so far, with the most moves followed from each
+   */
+  private static void collect(GameState state, int plies, Map<GameState, Integer> found) {
+    GameState canonical = state.canonical();
+    if (canonical.isGameOver()) {
+      return;
+    }
+    // A position reached again sooner in the game has more of its moves to cover
+    Integer followed = found.get(canonical);
+    if (followed != null && followed >= plies) {
+      return;
+    }
+    found.put(canonical, plies);
+    if (plies == 0) {
+      return;
+    }
+    for (int pit = 0; pit < MancalaModel.B_MANCALA_POS; pit++) {
+      if (canonical.isLegal(pit)) {
+        collect(canonical.play(pit), plies - 1, found);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of positions the book will hold.
+   *
+   * @return the number of positions
+   */
+  public int size() {
+    return positions.length;
+  }
+
+  /** Searches every position. */
+  public void solve() {
+    pool.invoke(new SolveRange(0, positions.length));
+    pool.shutdown();
+  }
+
+  /**
+   * Writes the book, sorted by key.
+   *
+   * @param file the file to write
+   * @throws IOException if the file can't be written
+   */
+  public void write(Path file) throws IOException {
+    long[][] entries = new long[positions.length][];
+    for (int i = 0; i < positions.length; i++) {
+      entries[i] = new long[] {positions[i].getCanonicalKey(), i};
+    }
+    Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+
+    ByteBuffer buffer =
+        ByteBuffer.allocate(OpeningBook.HEADER_SIZE + positions.length * OpeningBook.ENTRY_SIZE);
+    buffer.putLong(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putInt(positions.length);
+    for (long[] entry : entries) {
+      int i = (int) entry[1];
+      buffer
+          .putLong(entry[0])
+          .putShort((short) scores[i])
+          .put((byte) moves[i])
+          .put((byte) depth);
+    }
+    buffer.flip();
+    try (FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /** Searches a range of the positions, splitting it across threads. */
+  @SuppressWarnings("serial")
+  private class SolveRange extends RecursiveAction {
+    final int from;
+    final int to;
+
+    SolveRange(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > MIN_TASK_SIZE) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new SolveRange(from, middle), new SolveRange(middle, to));
+        return;
+      }
+      TranspositionTable table = tables.get();
+      AlphaBetaEngine engine = new AlphaBetaEngine(table);
+      for (int i = from; i < to; i++) {
+        table.clear();
+        moves[i] = engine.findBestMove(positions[i], depth, Long.MAX_VALUE);
+        scores[i] = engine.getScore();
+      }
+    }
+  }
+
+  /**
+   * Builds a book and writes it to a file.
+   *
+   * @param args the options described in the class comment
+   * @throws IOException if the file can't be written
+   */
+  public static void main(String[] args) throws IOException {
+    int plies = 6;
+    int depth = 12;
+    int[] stoneCounts = {3, 4};
+    int threads = Runtime.getRuntime().availableProcessors();
+    Path file = Paths.get(OpeningBook.DEFAULT_FILE_NAME);
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--plies":
+          plies = Integer.parseInt(args[i + 1]);
+          break;
+        case "--depth":
+          depth = Integer.parseInt(args[i + 1]);
+          break;
+        case "--stones":
+          stoneCounts =
+              Arrays.stream(args[i + 1].split(",")).mapToInt(Integer::parseInt).toArray();
+          break;
+        case "--threads":
+          threads = Integer.parseInt(args[i + 1]);
+          break;
+        case "--file":
+          file = Paths.get(args[i + 1]);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    long start = System.currentTimeMillis();
+    OpeningBookBuilder builder = new OpeningBookBuilder(plies, depth, stoneCounts, threads);
+    builder.solve();
+    builder.write(file);
+    System.out.printf(
+        "Searched %d positions up to ply %d to depth %d in %d ms, wrote %s%n",
+        builder.size(), plies, depth, System.currentTimeMillis() - start, file);
+  }
+}
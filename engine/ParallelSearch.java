@@ -0,0 +1,330 @@
+package ram.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A multi-threaded version of {@link AlphaBetaEngine} that splits the tree over a {@link
+ * ForkJoinPool} using young brothers wait: at every node with at least {@link #MIN_SPLIT_DEPTH}
+ * plies left, the first (best ordered) move is searched alone to narrow the window, then the
+ * remaining moves are searched in parallel. Below that depth each thread runs the serial engine.
+ * All threads share one lock-free {@link TranspositionTable}.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class ParallelSearch {
+  public static final int MIN_SPLIT_DEPTH = 6;
+
+  private final ForkJoinPool pool;
+  private final TranspositionTable table;
+  private final ThreadLocal<AlphaBetaEngine> engines;
+  private final LongAdder nodes = new LongAdder();
+
+  private volatile boolean hitHorizon;
+  private int completedDepth;
+  private int score;
+  private long elapsedMillis;
+
+  /**
+   * Creates a parallel search with its own pool of threads and a table of the default size.
+   *
+   * @param threads the number of search threads
+   */
+  public ParallelSearch(int threads) {
+    this(threads, new TranspositionTable(AlphaBetaEngine.DEFAULT_TABLE_SIZE_LOG2));
+  }
+
+  /**
+   * Creates a parallel search with its own pool of threads.
+   *
+   * @param threads the number of search threads
+   * @param table the table shared by all threads
+   */
+  public ParallelSearch(int threads, TranspositionTable table) {
+    this.table = table;
+    pool = new ForkJoinPool(threads);
+    engines = ThreadLocal.withInitial(() -> new AlphaBetaEngine(table));
+  }
+
+  /**
+   * Finds the best move by iterative deepening, like {@link AlphaBetaEngine#findBestMove(GameState,
+   * int, long)}.
+   *
+   * @param state the position to move from
+   * @param maxDepth the deepest iteration to run
+   * @param timeBudgetMillis the time after which no new iteration is started
+   * @return the index of the best pit, or -1 if the game is over
+   */
+  public int findBestMove(GameState state, int maxDepth, long timeBudgetMillis) {
+    long start = System.currentTimeMillis();
+    nodes.reset();
+    completedDepth = 0;
+    score = 0;
+
+    int bestMove = -1;
+    for (int depth = 1; depth <= Math.min(maxDepth, AlphaBetaEngine.MAX_PLY); depth++) {
+      hitHorizon = false;
+      RootTask root = new RootTask(state.getLo(), state.getHi(), depth);
+      score = pool.invoke(root);
+      completedDepth = depth;
+      bestMove = root.move;
+
+      // Every line reached the end of the game, so deeper iterations can't change the result
+      if (!hitHorizon || System.currentTimeMillis() - start > timeBudgetMillis / 2) {
+        break;
+      }
+    }
+    elapsedMillis = System.currentTimeMillis() - start;
+    return bestMove;
+  }
+
+  /** Stops the search threads. */
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  /**
+   * Searches a position, splitting the work across threads if enough depth is left.
+   *
+   * @return the score from the side to move's point of view
+   */
+  private int search(long lo, long hi, int depth, int alpha, int beta) {
+    return search(lo, hi, depth, alpha, beta, null);
+  }
+
+  /**
+   * Searches a position, and if it is the root, hands its best move to the root task.
+   *
+   * @param root the task searching the root, or null below it
+   * @return the score from the side to move's point of view
+   */
+  private int search(long lo, long hi, int depth, int alpha, int beta, RootTask root) {
+    if (GameState.gameOver(lo, hi)) {
+      nodes.increment();
+      return AlphaBetaEngine.evaluate(lo, hi);
+    }
+
+    // Too shallow to be worth splitting
+    if (depth < MIN_SPLIT_DEPTH) {
+      AlphaBetaEngine engine = engines.get();
+      long before = engine.getNodes();
+      int value = engine.search(lo, hi, depth, alpha, beta);
+      nodes.add(engine.getNodes() - before);
+      if (engine.hasHitHorizon()) {
+        hitHorizon = true;
+      }
+      if (root != null) {
+        root.move = engine.getRootMove();
+      }
+      return value;
+    }
+    nodes.increment();
+
+    // Use a cached result if it was searched deep enough, except at the root, whose move must come
+    // from this search
+    long key = TranspositionTable.hash(lo, hi);
+    long entry = table.probe(key);
+    int ttMove = -1;
+    if (entry != TranspositionTable.MISS) {
+      ttMove = TranspositionTable.move(entry);
+      if (root == null && TranspositionTable.depth(entry) >= depth) {
+        int ttScore = TranspositionTable.score(entry);
+        int bound = TranspositionTable.bound(entry);
+        if (bound == TranspositionTable.EXACT
+            || (bound == TranspositionTable.LOWER_BOUND && ttScore >= beta)
+            || (bound == TranspositionTable.UPPER_BOUND && ttScore <= alpha)) {
+          hitHorizon = true;
+          return ttScore;
+        }
+      }
+    }
+
+    int[] moves = new int[MancalaModel.NUM_PITS_PER_PLAYER];
+    int count = AlphaBetaEngine.orderMoves(lo, hi, ttMove, moves, 0);
+    long[] children = new long[2 * count];
+    int originalAlpha = alpha;
+
+    // Eldest brother first, on this thread
+    int flags = GameState.play(lo, hi, moves[0], children, 0);
+    int bestScore =
+        (flags & GameState.EXTRA_TURN) != 0
+            ? search(children[0], children[1], depth - 1, alpha, beta)
+            : -search(children[0], children[1], depth - 1, -beta, -alpha);
+    int bestMove = moves[0];
+    if (bestScore > alpha) {
+      alpha = bestScore;
+    }
+
+    // Then the young brothers in parallel, all with the window the eldest produced
+    if (alpha < beta && count > 1) {
+      List<SplitTask> tasks = new ArrayList<>(count - 1);
+      for (int i = 1; i < count; i++) {
+        flags = GameState.play(lo, hi, moves[i], children, 2 * i);
+        tasks.add(
+            (flags & GameState.EXTRA_TURN) != 0
+                ? new SplitTask(children[2 * i], children[2 * i + 1], depth - 1, alpha, beta)
+                : new NegatedSplitTask(
+                    children[2 * i], children[2 * i + 1], depth - 1, -beta, -alpha));
+      }
+      ForkJoinTask.invokeAll(tasks);
+      for (int i = 1; i < count; i++) {
+        int value = tasks.get(i - 1).join();
+        if (value > bestScore) {
+          bestScore = value;
+          bestMove = moves[i];
+        }
+      }
+    }
+
+    int bound =
+        bestScore <= originalAlpha
+            ? TranspositionTable.UPPER_BOUND
+            : bestScore >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+    table.store(key, bestScore, depth, bound, bestMove);
+    if (root != null) {
+      root.move = bestMove;
+    }
+    return bestScore;
+  }
+
+  /** Searches one position as a fork/join task. */
+  @SuppressWarnings("serial")
+  private class SplitTask extends RecursiveTask<Integer> {
+    final long lo;
+    final long hi;
+    final int depth;
+    final int alpha;
+    final int beta;
+
+    SplitTask(long lo, long hi, int depth, int alpha, int beta) {
+      this.lo = lo;
+      this.hi = hi;
+      this.depth = depth;
+      this.alpha = alpha;
+      this.beta = beta;
+    }
+
+    @Override
+    protected Integer compute() {
+      return search(lo, hi, depth, alpha, beta);
+    }
+  }
+
+  /** Searches the root with a full window and keeps the best move it finds. */
+  @SuppressWarnings("serial")
+  private class RootTask extends SplitTask {
+    int move = -1;
+
+    RootTask(long lo, long hi, int depth) {
+      super(lo, hi, depth, -AlphaBetaEngine.INFINITY, AlphaBetaEngine.INFINITY);
+    }
+
+    @Override
+    protected Integer compute() {
+      return search(lo, hi, depth, alpha, beta, this);
+    }
+  }
+
+  /** Searches a position where the turn passed, returning the score for the parent's mover. */
+  @SuppressWarnings("serial")
+  private class NegatedSplitTask extends SplitTask {
+    NegatedSplitTask(long lo, long hi, int depth, int alpha, int beta) {
+      super(lo, hi, depth, alpha, beta);
+    }
+
+    @Override
+    protected Integer compute() {
+      return -search(lo, hi, depth, alpha, beta);
+    }
+  }
+
+  /**
+   * Returns the number of positions visited by the last search, over all threads.
+   *
+   * @return the node count
+   */
+  public long getNodes() {
+    return nodes.sum();
+  }
+
+  /**
+   * Returns the depth of the last iteration the last search completed.
+   *
+   * @return the completed depth
+   */
+  public int getCompletedDepth() {
+    return completedDepth;
+  }
+
+  /**
+   * Returns the score of the last search from the mover's point of view.
+   *
+   * @return the store difference expected with best play
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Returns the wall-clock time of the last search.
+   *
+   * @return the elapsed time in milliseconds
+   */
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  /**
+   * Returns the number of threads searching.
+   *
+   * @return the parallelism of the pool
+   */
+  public int getThreads() {
+    return pool.getParallelism();
+  }
+
+  /**
+   * Searches the starting position to a fixed depth with 1, 2, 4, ... threads and prints the time,
+   * nodes per second and speedup over one thread, for sizing analysis servers.
+   *
+   * @param args optional search depth, maximum thread count and stones per pit
+   */
+  public static void main(String[] args) {
+    int depth = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+    int maxThreads =
+        args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    int numStones = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+    GameState state = GameState.initial(numStones, true);
+
+    System.out.printf(
+        "%8s %10s %14s %14s %9s %9s%n", "threads", "ms", "nodes", "nodes/s", "speedup", "nps x");
+    long baseMillis = 0;
+    double baseNps = 0;
+    for (int threads = 1;
+        threads <= maxThreads;
+        threads = threads < maxThreads && threads * 2 > maxThreads ? maxThreads : threads * 2) {
+      ParallelSearch search = new ParallelSearch(threads);
+      search.findBestMove(state, depth, Long.MAX_VALUE);
+      search.shutdown();
+
+      long millis = Math.max(1, search.getElapsedMillis());
+      double nps = search.getNodes() * 1000.0 / millis;
+      if (threads == 1) {
+        baseMillis = millis;
+        baseNps = nps;
+      }
+      System.out.printf(
+          "%8d %10d %14d %14.0f %9.2f %9.2f%n",
+          threads,
+          millis,
+          search.getNodes(),
+          nps,
+          (double) baseMillis / millis,
+          nps / baseNps);
+    }
+  }
+}
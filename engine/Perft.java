@@ -0,0 +1,279 @@
+package ram.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the positions reached by every sequence of moves from the start of a game, the way chess
+ * programs check and time their move generators. Counts that agree with those of another move
+ * generator show that both follow the same rules, and the nodes per second are a baseline for the
+ * speed of the rules in {@link GameState}.
+ *
+ * <p>A game that ends before the full depth counts as one leaf where it ends. By default each
+ * move is one ply, so the extra turn of a move ending in the mover's Mancala uses up a ply like any
+ * other move. With {@code --turns} a move earning an extra turn and the moves that follow it in the
+ * same turn count as one ply, so depth N covers N turns, as many moves as each takes.
+ *
+ * <p>Usage: {@code java ram.engine.Perft [--depth N] [--stones N] [--turns] [--threads N]
+ * [--model]}. It prints the count below each first move, then times the whole count on one thread
+ * and on the given number of threads. With {@code --model} the counts are also made by playing
+ * every move on a {@link MancalaModel} and going back, and every position is checked to have the
+ * same legal moves there; that is much slower.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class Perft {
+  // Below this depth a subtree is counted on the thread that reached it
+  private static final int SPLIT_DEPTH = 4;
+  private static final int MAX_MOVES = 256;
+
+  private final boolean isTurns;
+
+  /**
+   * Creates a counter.
+   *
+   * @param isTurns whether a chain of extra turns counts as one ply
+   */
+  public Perft(boolean isTurns) {
+    this.isTurns = isTurns;
+  }
+
+  /**
+   * Counts the leaves below a position on the calling thread.
+   *
+   * @param state the position
+   * @param depth the number of plies to follow
+   * @return the number of positions at that depth or where the game ended sooner
+   */
+  public long count(GameState state, int depth) {
+    return count(state.getLo(), state.getHi(), depth, new long[2 * MAX_MOVES], 0);
+  }
+
+  /**
+   * Counts the leaves below a position on every thread of a pool.
+   *
+   * @param state the position
+   * @param depth the number of plies to follow
+   * @param pool the pool to count on
+   * @return the number of positions at that depth or where the game ended sooner
+   */
+  public long count(GameState state, int depth, ForkJoinPool pool) {
+    return pool.invoke(new CountTask(state.getLo(), state.getHi(), depth));
+  }
+
+  /**
+   * Counts the leaves below each move of a position.
+   *
+   * @param state the position
+   * @param depth the number of plies to follow, including the move
+   * @return the count below each pit, 0 for pits that can't be played
+   */
+  public long[] divide(GameState state, int depth) {
+    long[] counts = new long[MancalaModel.TOTAL_NUM_PITS];
+    long[] out = new long[2 * MAX_MOVES];
+    int moves = state.getLegalMoves();
+    for (int pit = 0; moves != 0; pit++, moves >>>= 1) {
+      if ((moves & 1) != 0) {
+        int flags = GameState.play(state.getLo(), state.getHi(), pit, out, 0);
+        counts[pit] = countAfter(out[0], out[1], flags, depth, out, 2);
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * Counts the leaves below a position.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @param depth the number of plies to follow
+   * @param out space for the positions of the moves being followed
+   * @param offset where in {@code out} this position's moves may be written
+   * @return the number of leaves
+   */
+  private long count(long lo, long hi, int depth, long[] out, int offset) {
+    if (depth == 0 || GameState.gameOver(lo, hi)) {
+      return 1;
+    }
+    long leaves = 0;
+    int moves = GameState.legalMoves(lo, hi);
+    while (moves != 0) {
+      int pit = Integer.numberOfTrailingZeros(moves);
+      moves &= moves - 1;
+      int flags = GameState.play(lo, hi, pit, out, offset);
+      leaves += countAfter(out[offset], out[offset + 1], flags, depth, out, offset + 2);
+    }
+    return leaves;
+  }
+
+  /**
+   * Counts the leaves below the position a move led to.
+   *
+   * @param lo pits 0-6 after the move
+   * @param hi pits 7-13 and the turn bit after the move
+   * @param flags the result of the move
+   * @param depth the number of plies left before the move
+   * @param out space for the positions of the moves being followed
+   * @param offset where in {@code out} the next moves may be written
+   * @return the number of leaves
+   */
+  private long countAfter(long lo, long hi, int flags, int depth, long[] out, int offset) {
+    boolean isSameTurn = isTurns && (flags & GameState.EXTRA_TURN) != 0;
+    return count(lo, hi, isSameTurn ? depth : depth - 1, out, offset);
+  }
+
+  /** Counts a subtree, splitting the first plies of it across the pool. */
+  @SuppressWarnings("serial")
+  private class CountTask extends RecursiveTask<Long> {
+    final long lo;
+    final long hi;
+    final int depth;
+
+    CountTask(long lo, long hi, int depth) {
+      this.lo = lo;
+      this.hi = hi;
+      this.depth = depth;
+    }
+
+    @Override
+    protected Long compute() {
+      long[] out = new long[2 * MAX_MOVES];
+      if (depth <= SPLIT_DEPTH || GameState.gameOver(lo, hi)) {
+        return count(lo, hi, depth, out, 0);
+      }
+      CountTask[] tasks = new CountTask[MancalaModel.TOTAL_NUM_PITS];
+      int n = 0;
+      int moves = GameState.legalMoves(lo, hi);
+      while (moves != 0) {
+        int pit = Integer.numberOfTrailingZeros(moves);
+        moves &= moves - 1;
+        int flags = GameState.play(lo, hi, pit, out, 0);
+        boolean isSameTurn = isTurns && (flags & GameState.EXTRA_TURN) != 0;
+        tasks[n++] = new CountTask(out[0], out[1], isSameTurn ? depth : depth - 1);
+      }
+      for (int i = 0; i < n; i++) {
+        tasks[i].fork();
+      }
+      long leaves = 0;
+      for (int i = n - 1; i >= 0; i--) {
+        leaves += tasks[i].join();
+      }
+      return leaves;
+    }
+  }
+
+  /**
+   * Counts the leaves below the model's position by playing every move on it and going back.
+   *
+   * @param model the model, which is left where it was
+   * @param depth the number of plies to follow
+   * @return the number of leaves
+   * @throws IllegalStateException if the model and the packed rules disagree on the legal moves
+   */
+  long countOnModel(MancalaModel model, int depth) {
+    MancalaModel.Snapshot snapshot = model.getSnapshot();
+    if (snapshot.getLegalMoves() != snapshot.getGameState().getLegalMoves()) {
+      throw new IllegalStateException("Legal moves differ in " + snapshot.getGameState());
+    }
+    if (depth == 0 || snapshot.gameOver()) {
+      return 1;
+    }
+    long leaves = 0;
+    int ply = snapshot.getPly();
+    for (int pit = 0; pit < model.getTotalNumPits(); pit++) {
+      if (model.isLegalMove(pit)) {
+        boolean isPlayerATurn = model.isPlayerATurn();
+        model.move(pit);
+        boolean isSameTurn = isTurns && !model.gameOver() && model.isPlayerATurn() == isPlayerATurn;
+        leaves += countOnModel(model, isSameTurn ? depth : depth - 1);
+        model.goToPly(ply);
+      }
+    }
+    return leaves;
+  }
+
+  /**
+   * Runs a count and prints it.
+   *
+   * @param args the options described in the class comment
+   */
+  public static void main(String[] args) {
+    int depth = 8;
+    int numStones = 4;
+    boolean isTurns = false;
+    boolean isModelChecked = false;
+    int threads = Runtime.getRuntime().availableProcessors();
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "--depth":
+          depth = Integer.parseInt(args[++i]);
+          break;
+        case "--stones":
+          numStones = Integer.parseInt(args[++i]);
+          break;
+        case "--turns":
+          isTurns = true;
+          break;
+        case "--threads":
+          threads = Integer.parseInt(args[++i]);
+          break;
+        case "--model":
+          isModelChecked = true;
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    Perft perft = new Perft(isTurns);
+    GameState start = GameState.initial(numStones, true);
+    long[] divided = perft.divide(start, depth);
+    long total = 0;
+    for (int pit = 0; pit < divided.length; pit++) {
+      if (divided[pit] > 0) {
+        System.out.printf("pit %d: %d%n", pit + 1, divided[pit]);
+        total += divided[pit];
+      }
+    }
+    System.out.printf(
+        "%d leaves at depth %d %s with %d stones%n",
+        total, depth, isTurns ? "turns" : "plies", numStones);
+
+    long begin = System.nanoTime();
+    long leaves = perft.count(start, depth);
+    report("1 thread", leaves, System.nanoTime() - begin);
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    begin = System.nanoTime();
+    long parallelLeaves = perft.count(start, depth, pool);
+    report("pool of " + threads, parallelLeaves, System.nanoTime() - begin);
+    pool.shutdown();
+
+    boolean isWrong = leaves != total || parallelLeaves != total;
+    if (isModelChecked) {
+      MancalaModel model = new MancalaModel(MancalaModel.NUM_PITS_PER_PLAYER, false);
+      model.setUpMancalaBoard(numStones, true);
+      begin = System.nanoTime();
+      long modelLeaves = perft.countOnModel(model, depth);
+      report("model", modelLeaves, System.nanoTime() - begin);
+      isWrong |= modelLeaves != total;
+    }
+    if (isWrong) {
+      System.out.println("The counts differ.");
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Prints a count with its speed.
+   *
+   * @param label what counted
+   * @param leaves the number of leaves
+   * @param nanos how long it took
+   */
+  private static void report(String label, long leaves, long nanos) {
+    System.out.printf(
+        "%-11s %,d leaves in %.3f s, %,.0f leaves/s%n",
+        label + ":", leaves, nanos / 1e9, leaves / (nanos / 1e9));
+  }
+}
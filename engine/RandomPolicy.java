@@ -0,0 +1,27 @@
+package ram.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * A class which defines a concrete strategy for the Strategy pattern. In this case, it plays a
+ * uniformly random legal move.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class RandomPolicy implements MovePolicy {
+  private final SplittableRandom random;
+
+  /**
+   * Creates a random policy.
+   *
+   * @param seed the seed for the random generator
+   */
+  public RandomPolicy(long seed) {
+    random = new SplittableRandom(seed);
+  }
+
+  @Override
+  public int chooseMove(long lo, long hi) {
+    return MctsEngine.randomBit(GameState.legalMoves(lo, hi), random);
+  }
+}
@@ -0,0 +1,265 @@
+package ram.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Checks the sowing rules of {@link MancalaModel} and {@link GameState} against the original
+ * stone-by-stone loop of the model, kept here as the reference. It plays random games on boards of
+ * 1 to {@value GameRecordReader#MAX_PITS_PER_PLAYER} pits a side, some with enough stones per pit
+ * for a move to go round the board several times, and after every move compares the model's board
+ * and turn with the reference. On the standard board the move is also played on the packed state,
+ * as long as the board holds no more than the 255 stones it can pack. Some moves are taken back
+ * and played again, and at the end of each game the model goes back to a few earlier plies, to the
+ * start and to the end again, each time matching the board the reference had there.
+ *
+ * <p>Usage: {@code java ram.engine.RulesCheck [games] [seed]}.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class RulesCheck {
+  private static final int MAX_PACKED_STONES = 255;
+  private static final int MAX_REPORTED = 10;
+
+  private long moves;
+  private long checks;
+  private long mismatches;
+
+  /**
+   * Plays a move on a board the way the original model did, one stone at a time.
+   *
+   * @param board the board, with player A's Mancala in the middle and player B's at the end
+   * @param isPlayerATurn whether player A is moving
+   * @param index the index of the pit, which must be a legal move
+   * @return whether it is player A's turn after the move
+   */
+  static boolean sow(int[] board, boolean isPlayerATurn, int index) {
+    int aMancala = board.length / 2 - 1;
+    int bMancala = board.length - 1;
+    boolean dropInOwnMancala = false;
+    int stonesToDrop = board[index];
+    board[index] = 0;
+    index = (index + 1) % board.length;
+    while (stonesToDrop > 0) {
+      if (isPlayerATurn) {
+        if (index == aMancala && stonesToDrop == 1) {
+          dropInOwnMancala = true;
+        }
+        if (index == bMancala) {
+          index = 0;
+        }
+        int oppositeIndex = bMancala - 1 - index;
+        if (stonesToDrop == 1
+            && index < aMancala
+            && board[oppositeIndex] > 0
+            && board[index] == 0) {
+          board[aMancala] += 1 + board[oppositeIndex];
+          board[oppositeIndex] = 0;
+          board[index]--;
+        }
+      } else {
+        if (index == bMancala && stonesToDrop == 1) {
+          dropInOwnMancala = true;
+        }
+        if (index == aMancala) {
+          index = aMancala + 1;
+        }
+        int oppositeIndex = bMancala - 1 - index;
+        if (stonesToDrop == 1
+            && index > aMancala
+            && index < bMancala
+            && board[oppositeIndex] > 0
+            && board[index] == 0) {
+          board[bMancala] += 1 + board[oppositeIndex];
+          board[oppositeIndex] = 0;
+          board[index]--;
+        }
+      }
+      board[index]++;
+      index = (index + 1) % board.length;
+      stonesToDrop--;
+    }
+
+    // Game over, all marbles left in pits go to respective mancalas
+    if (rowSum(board, 0, aMancala) == 0 || rowSum(board, aMancala + 1, bMancala) == 0) {
+      for (int i = 0; i < bMancala; i++) {
+        if (i != aMancala) {
+          board[i < aMancala ? aMancala : bMancala] += board[i];
+          board[i] = 0;
+        }
+      }
+    }
+    return dropInOwnMancala ? isPlayerATurn : !isPlayerATurn;
+  }
+
+  private static int rowSum(int[] board, int from, int to) {
+    int sum = 0;
+    for (int i = from; i < to; i++) {
+      sum += board[i];
+    }
+    return sum;
+  }
+
+  /**
+   * Compares the model with a board and turn of the reference.
+   *
+   * @param model the model
+   * @param board the reference board
+   * @param isPlayerATurn the reference turn
+   * @param what where in the game the comparison is made, for the report
+   */
+  private void check(MancalaModel model, int[] board, boolean isPlayerATurn, String what) {
+    MancalaModel.Snapshot snapshot = model.getSnapshot();
+    int[] actual = new int[board.length];
+    for (int i = 0; i < actual.length; i++) {
+      actual[i] = snapshot.getMarbles(i);
+    }
+    checks++;
+    if (!Arrays.equals(actual, board)
+        || snapshot.isPlayerATurn() != isPlayerATurn
+        || snapshot.getKey() != Zobrist.key(board, isPlayerATurn)) {
+      report(what, board, isPlayerATurn, actual, snapshot.isPlayerATurn());
+    }
+  }
+
+  /**
+   * Counts a mismatch and prints the first few.
+   *
+   * @param what where in the game it was found
+   * @param expected the reference board
+   * @param isExpectedATurn the reference turn
+   * @param actual the board found
+   * @param isActualATurn the turn found
+   */
+  private void report(
+      String what, int[] expected, boolean isExpectedATurn, int[] actual, boolean isActualATurn) {
+    if (mismatches++ < MAX_REPORTED) {
+      System.out.printf(
+          "%s: expected %s %s, got %s %s%n",
+          what,
+          Arrays.toString(expected),
+          isExpectedATurn ? "A" : "B",
+          Arrays.toString(actual),
+          isActualATurn ? "A" : "B");
+    }
+  }
+
+  /**
+   * Plays one random game.
+   *
+   * @param game the number of the game, for the report
+   * @param random the source of the board and the moves
+   */
+  private void play(int game, SplittableRandom random) {
+    boolean isStandard = random.nextBoolean();
+    int numPitsPerPlayer =
+        isStandard
+            ? MancalaModel.NUM_PITS_PER_PLAYER
+            : 1 + random.nextInt(GameRecordReader.MAX_PITS_PER_PLAYER);
+    int numStones;
+    if (isStandard) {
+      numStones = 1 + random.nextInt(MAX_PACKED_STONES / (2 * numPitsPerPlayer));
+    } else {
+      numStones = 1 + random.nextInt(random.nextInt(4) == 0 ? 40 : 6);
+    }
+    boolean isPlayerATurn = random.nextBoolean();
+    MancalaModel model = new MancalaModel(numPitsPerPlayer, false);
+    model.setUpMancalaBoard(numStones, isPlayerATurn);
+
+    int[] board = new int[model.getTotalNumPits()];
+    for (int i = 0; i < board.length; i++) {
+      board[i] = i == model.getAMancalaPos() || i == model.getBMancalaPos() ? 0 : numStones;
+    }
+    List<int[]> boards = new ArrayList<>();
+    List<Boolean> turns = new ArrayList<>();
+    boards.add(board.clone());
+    turns.add(isPlayerATurn);
+    String name = "game " + game + " (" + numPitsPerPlayer + " pits, " + numStones + " stones)";
+    check(model, board, isPlayerATurn, name + " at the start");
+
+    while (!model.gameOver()) {
+      int first = isPlayerATurn ? 0 : model.getAMancalaPos() + 1;
+      int pit = first + random.nextInt(numPitsPerPlayer);
+      if (board[pit] == 0) {
+        continue;
+      }
+      int ply = model.getPly();
+      GameState packed = isStandard ? GameState.of(board, isPlayerATurn) : null;
+
+      isPlayerATurn = sow(board, isPlayerATurn, pit);
+      model.move(pit);
+      moves++;
+      String what = name + " after pit " + pit + " at ply " + ply;
+      check(model, board, isPlayerATurn, what);
+      if (packed != null) {
+        GameState expected = GameState.of(board, isPlayerATurn);
+        GameState actual = packed.play(pit);
+        checks++;
+        if (!expected.equals(actual)) {
+          report(what + " packed", board, isPlayerATurn, stones(actual), actual.isPlayerATurn());
+        }
+      }
+      boards.add(board.clone());
+      turns.add(isPlayerATurn);
+
+      if (random.nextInt(8) == 0) {
+        model.goToPly(ply);
+        check(model, boards.get(ply), turns.get(ply), what + " undone");
+        model.redoMove();
+        check(model, board, isPlayerATurn, what + " redone");
+      }
+    }
+
+    int end = model.getPly();
+    for (int i = 0; i < 3; i++) {
+      int ply = random.nextInt(end + 1);
+      model.goToPly(ply);
+      check(model, boards.get(ply), turns.get(ply), name + " gone to ply " + ply);
+    }
+    model.goToPly(0);
+    check(model, boards.get(0), turns.get(0), name + " gone to the start");
+    model.goToPly(end);
+    check(model, board, isPlayerATurn, name + " gone to the end");
+  }
+
+  /**
+   * Unpacks the pits of a state.
+   *
+   * @param state the state
+   * @return the number of stones in each of the 14 pits
+   */
+  private static int[] stones(GameState state) {
+    int[] board = new int[MancalaModel.TOTAL_NUM_PITS];
+    for (int i = 0; i < board.length; i++) {
+      board[i] = state.getStones(i);
+    }
+    return board;
+  }
+
+  /**
+   * Runs the check.
+   *
+   * @param args the options described in the class comment
+   */
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+    RulesCheck check = new RulesCheck();
+    SplittableRandom random = new SplittableRandom(seed);
+    long start = System.nanoTime();
+    for (int i = 0; i < games; i++) {
+      check.play(i, random);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.printf(
+        "%d games, %d moves, %d positions checked in %.2f s, %d wrong%n",
+        games, check.moves, check.checks, seconds, check.mismatches);
+    if (check.mismatches > 0) {
+      System.exit(1);
+    }
+  }
+}
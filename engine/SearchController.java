@@ -0,0 +1,181 @@
+package ram.engine;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Plays moves with an {@link AlphaBetaEngine} under a wall-clock deadline per move. The engine
+ * deepens until the deadline and plays the move of the deepest iteration it completed, so a move
+ * takes about the same time in quiet and in complex positions, and it is applied through {@link
+ * MancalaModel#move(int)} just like a click on a pit.
+ *
+ * <p>The depth reached, the nodes searched and the time taken by the last move can be read back,
+ * and every move is also a JFR event.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class SearchController {
+  private final AlphaBetaEngine engine;
+  private final long deadlineMillis;
+
+  private int move = -1;
+  private int completedDepth;
+  private long nodes;
+  private long elapsedNanos;
+  private boolean hitDeadline;
+
+  /**
+   * Creates a controller.
+   *
+   * @param engine the engine to search with
+   * @param deadlineMillis the wall-clock time each move may take
+   */
+  public SearchController(AlphaBetaEngine engine, long deadlineMillis) {
+    this.engine = engine;
+    this.deadlineMillis = deadlineMillis;
+  }
+
+  /**
+   * Finds the move to play in a position without playing it.
+   *
+   * @param state the position to move from
+   * @return the index of the best pit, or -1 if the game is over
+   * @throws IllegalStateException if the engine returned a move other than that of the last
+   *     iteration it completed
+   */
+  public int search(GameState state) {
+    SearchEvent event = new SearchEvent();
+    event.begin();
+    move = engine.findBestMove(state, AlphaBetaEngine.MAX_PLY, deadlineMillis);
+    completedDepth = engine.getCompletedDepth();
+    nodes = engine.getNodes();
+    elapsedNanos = engine.getElapsedNanos();
+    hitDeadline = engine.hasHitDeadline();
+    event.end();
+
+    // The move played and reported must be the one the completed depth and score belong to
+    if (move != engine.getBestMove() || (move < 0 ? !state.isGameOver() : !state.isLegal(move))) {
+      throw new IllegalStateException(
+          "Move " + move + " is not from the depth " + completedDepth + " search of " + state);
+    }
+    if (event.shouldCommit()) {
+      event.pit = move;
+      event.depth = completedDepth;
+      event.nodes = nodes;
+      event.hitDeadline = hitDeadline;
+      event.commit();
+    }
+    return move;
+  }
+
+  /**
+   * Finds and plays the move of the side to move on a model.
+   *
+   * @param model the model to play on
+   * @return the index of the pit played, or -1 if the game is over
+   */
+  public int play(MancalaModel model) {
+    MancalaModel.Snapshot snapshot = model.getSnapshot();
+    if (snapshot.gameOver()) {
+      return -1;
+    }
+    int pit = search(snapshot.getGameState());
+    model.move(pit);
+    return pit;
+  }
+
+  /**
+   * Returns the move found by the last search.
+   *
+   * @return the index of the pit, or -1 if the game was over
+   */
+  public int getMove() {
+    return move;
+  }
+
+  /**
+   * Returns the depth of the deepest iteration the last search completed.
+   *
+   * @return the depth reached
+   */
+  public int getCompletedDepth() {
+    return completedDepth;
+  }
+
+  /**
+   * Returns the number of positions the last search visited, including those of an iteration cut
+   * short by the deadline.
+   *
+   * @return the node count
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  /**
+   * Returns the wall-clock time of the last search.
+   *
+   * @return the elapsed time in milliseconds
+   */
+  public double getElapsedMillis() {
+    return elapsedNanos / 1e6;
+  }
+
+  /**
+   * Returns the speed of the last search.
+   *
+   * @return the nodes visited per second
+   */
+  public double getNodesPerSecond() {
+    return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+  }
+
+  /**
+   * Returns whether the deadline cut the last search short, rather than the search running out of
+   * depth or finding the end of every line.
+   *
+   * @return whether an iteration was abandoned
+   */
+  public boolean hasHitDeadline() {
+    return hitDeadline;
+  }
+
+  /**
+   * Describes the last search in one line.
+   *
+   * @return the depth, nodes, time and speed of the last search
+   */
+  public String report() {
+    return String.format(
+        "depth %d, %,d nodes in %.1f ms (%,.0f nodes/s)%s",
+        completedDepth,
+        nodes,
+        getElapsedMillis(),
+        getNodesPerSecond(),
+        hitDeadline ? ", stopped at the deadline" : "");
+  }
+
+  /** A search for the move to play, timed from start to end. */
+  @Name("ram.Search")
+  @Label("Search")
+  @Category({"Mancala", "Engine"})
+  @Description("A search for a computer player's move")
+  static class SearchEvent extends Event {
+    @Label("Pit")
+    int pit;
+
+    @Label("Depth")
+    @Description("The depth of the deepest iteration completed")
+    int depth;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Hit Deadline")
+    @Description("Whether an iteration was abandoned when the time was up")
+    boolean hitDeadline;
+  }
+}
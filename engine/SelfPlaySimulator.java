@@ -0,0 +1,424 @@
+package ram.engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays large batches of headless games between two {@link MovePolicy}s on every core, using the
+ * packed {@link GameState} rules with no listeners involved. Results are summed per first player
+ * and opening pit, to study the effect of the opening and the number of stones, and can also be
+ * streamed to a CSV file one game per line or appended to a {@link GameRecordWriter} archive.
+ * Nothing is kept per game, so memory use doesn't grow with the number of games.
+ *
+ * <p>Usage: {@code java ram.engine.SelfPlaySimulator [--games N] [--stones 3|4] [--a POLICY] [--b
+ * POLICY] [--threads N] [--seed N] [--csv FILE] [--summary FILE] [--record FILE]}, where a policy
+ * is one of the names accepted by {@link MovePolicy#create(String, long)}.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class SelfPlaySimulator {
+  private static final int BATCH_SIZE = 1024;
+  private static final int NUM_OPENINGS = 2 * MancalaModel.TOTAL_NUM_PITS;
+  private static final String GAME_HEADER =
+      "game,stones,first,opening,winner,storeA,storeB,plies,capturesA,capturesB,extraTurnsA,"
+          + "extraTurnsB\n";
+
+  private final long games;
+  private final int numStones;
+  private final String policyA;
+  private final String policyB;
+  private final int threads;
+  private final long seed;
+  private final Writer gameWriter;
+  private GameRecordWriter recordWriter;
+
+  private final AtomicLong nextGame = new AtomicLong();
+  private final AtomicLong finishedGames = new AtomicLong();
+
+  /**
+   * Creates a simulator.
+   *
+   * @param games the number of games to play
+   * @param numStones the number of stones per pit
+   * @param policyA the name of player A's policy
+   * @param policyB the name of player B's policy
+   * @param threads the number of threads to play on
+   * @param seed the seed every random choice is derived from
+   * @param gameWriter where to stream one CSV line per game, or null
+   * @throws IllegalArgumentException if a board of {@code numStones} per pit can't be packed
+   */
+  public SelfPlaySimulator(
+      long games,
+      int numStones,
+      String policyA,
+      String policyB,
+      int threads,
+      long seed,
+      Writer gameWriter) {
+    if (numStones < 0 || numStones > GameState.MAX_STONES_PER_PIT) {
+      throw new IllegalArgumentException("Can't play with " + numStones + " stones per pit");
+    }
+    this.games = games;
+    this.numStones = numStones;
+    this.policyA = policyA;
+    this.policyB = policyB;
+    this.threads = threads;
+    this.seed = seed;
+    this.gameWriter = gameWriter;
+  }
+
+  /**
+   * Sets an archive to append every game to.
+   *
+   * @param recordWriter the archive, or null
+   */
+  public void setRecordWriter(GameRecordWriter recordWriter) {
+    this.recordWriter = recordWriter;
+  }
+
+  /**
+   * Plays all games, printing progress to standard error once a second.
+   *
+   * @return the combined results
+   * @throws IOException if the game file can't be written
+   */
+  public Results run() throws IOException {
+    if (gameWriter != null) {
+      gameWriter.write(GAME_HEADER);
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    List<Future<Results>> workers = new ArrayList<>(threads);
+    SplittableRandom seeds = new SplittableRandom(seed);
+    for (int i = 0; i < threads; i++) {
+      long workerSeed = seeds.nextLong();
+      workers.add(pool.submit(() -> play(workerSeed)));
+    }
+    pool.shutdown();
+
+    long start = System.nanoTime();
+    try {
+      while (!pool.awaitTermination(1, TimeUnit.SECONDS)) {
+        long finished = finishedGames.get();
+        System.err.printf(
+            "%d/%d games, %.0f games/s%n",
+            finished, games, finished * 1e9 / (System.nanoTime() - start));
+      }
+      Results results = new Results();
+      for (Future<Results> worker : workers) {
+        results.add(worker.get());
+      }
+      results.nanos = System.nanoTime() - start;
+      return results;
+    } catch (InterruptedException ex) {
+      pool.shutdownNow();
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Simulation interrupted", ex);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) ex.getCause()).getCause();
+      }
+      throw new IllegalStateException("Simulation failed", ex.getCause());
+    } finally {
+      if (gameWriter != null) {
+        gameWriter.flush();
+      }
+    }
+  }
+
+  /** Plays batches of games on one thread until all games are claimed. */
+  private Results play(long workerSeed) {
+    SplittableRandom random = new SplittableRandom(workerSeed);
+    MovePolicy a = MovePolicy.create(policyA, random.nextLong());
+    MovePolicy b = MovePolicy.create(policyB, random.nextLong());
+    Results results = new Results();
+    StringBuilder lines = new StringBuilder();
+    long[] out = new long[2];
+    int[] moves = new int[GameRecordReader.MAX_MOVES];
+
+    for (long first = nextGame.getAndAdd(BATCH_SIZE);
+        first < games;
+        first = nextGame.getAndAdd(BATCH_SIZE)) {
+      long last = Math.min(first + BATCH_SIZE, games);
+      for (long game = first; game < last; game++) {
+        boolean isPlayerAFirst = random.nextBoolean();
+        GameState start = GameState.initial(numStones, isPlayerAFirst);
+        long lo = start.getLo();
+        long hi = start.getHi();
+        int opening = -1;
+        int plies = 0;
+        int capturesA = 0;
+        int capturesB = 0;
+        int extraTurnsA = 0;
+        int extraTurnsB = 0;
+
+        while (!GameState.gameOver(lo, hi)) {
+          boolean isPlayerATurn = GameState.isPlayerATurn(hi);
+          int move = (isPlayerATurn ? a : b).chooseMove(lo, hi);
+          int flags = GameState.play(lo, hi, move, out, 0);
+          if (flags == GameState.ILLEGAL) {
+            throw new IllegalStateException("Policy chose illegal move " + move);
+          }
+          if (opening < 0) {
+            opening = move;
+          }
+          moves[plies++] = move;
+          if ((flags & GameState.CAPTURE) != 0) {
+            if (isPlayerATurn) {
+              capturesA++;
+            } else {
+              capturesB++;
+            }
+          }
+          if ((flags & GameState.EXTRA_TURN) != 0) {
+            if (isPlayerATurn) {
+              extraTurnsA++;
+            } else {
+              extraTurnsB++;
+            }
+          }
+          lo = out[0];
+          hi = out[1];
+        }
+
+        int storeA = GameState.stones(lo, hi, MancalaModel.A_MANCALA_POS);
+        int storeB = GameState.stones(lo, hi, MancalaModel.B_MANCALA_POS);
+        int winner = GameState.of(lo, hi).getWinner();
+        results.record(
+            isPlayerAFirst,
+            opening,
+            winner,
+            plies,
+            capturesA + capturesB,
+            extraTurnsA + extraTurnsB);
+
+        if (recordWriter != null) {
+          try {
+            synchronized (recordWriter) {
+              recordWriter.write(
+                  MancalaModel.NUM_PITS_PER_PLAYER, numStones, isPlayerAFirst, moves, plies);
+            }
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        }
+
+        if (gameWriter != null) {
+          lines
+              .append(game).append(',')
+              .append(numStones).append(',')
+              .append(isPlayerAFirst ? 'A' : 'B').append(',')
+              .append(opening).append(',')
+              .append(winnerName(winner)).append(',')
+              .append(storeA).append(',')
+              .append(storeB).append(',')
+              .append(plies).append(',')
+              .append(capturesA).append(',')
+              .append(capturesB).append(',')
+              .append(extraTurnsA).append(',')
+              .append(extraTurnsB).append('\n');
+        }
+      }
+
+      // Hand the batch to the shared file in one piece
+      if (gameWriter != null) {
+        try {
+          synchronized (gameWriter) {
+            gameWriter.append(lines);
+          }
+        } catch (IOException ex) {
+          throw new UncheckedIOException(ex);
+        }
+        lines.setLength(0);
+      }
+      finishedGames.addAndGet(last - first);
+    }
+    return results;
+  }
+
+  private static String winnerName(int winner) {
+    if (winner == MancalaModel.A_WINNER) {
+      return "A";
+    }
+    return winner == MancalaModel.B_WINNER ? "B" : "tie";
+  }
+
+  /** Results summed per first player and opening pit. */
+  public static class Results {
+    final long[] games = new long[NUM_OPENINGS];
+    final long[] winsA = new long[NUM_OPENINGS];
+    final long[] winsB = new long[NUM_OPENINGS];
+    final long[] ties = new long[NUM_OPENINGS];
+    final long[] plies = new long[NUM_OPENINGS];
+    final long[] captures = new long[NUM_OPENINGS];
+    final long[] extraTurns = new long[NUM_OPENINGS];
+    long nanos;
+
+    void record(
+        boolean isPlayerAFirst, int opening, int winner, int plies, int captures, int extraTurns) {
+      int i = (isPlayerAFirst ? 0 : MancalaModel.TOTAL_NUM_PITS) + opening;
+      games[i]++;
+      if (winner == MancalaModel.A_WINNER) {
+        winsA[i]++;
+      } else if (winner == MancalaModel.B_WINNER) {
+        winsB[i]++;
+      } else {
+        ties[i]++;
+      }
+      this.plies[i] += plies;
+      this.captures[i] += captures;
+      this.extraTurns[i] += extraTurns;
+    }
+
+    void add(Results other) {
+      for (int i = 0; i < NUM_OPENINGS; i++) {
+        games[i] += other.games[i];
+        winsA[i] += other.winsA[i];
+        winsB[i] += other.winsB[i];
+        ties[i] += other.ties[i];
+        plies[i] += other.plies[i];
+        captures[i] += other.captures[i];
+        extraTurns[i] += other.extraTurns[i];
+      }
+    }
+
+    /**
+     * Returns the total number of games played.
+     *
+     * @return the number of games
+     */
+    public long getGames() {
+      long total = 0;
+      for (long count : games) {
+        total += count;
+      }
+      return total;
+    }
+
+    /**
+     * Returns the number of games played per second of wall-clock time.
+     *
+     * @return the throughput of the run
+     */
+    public double getGamesPerSecond() {
+      return getGames() * 1e9 / nanos;
+    }
+
+    /**
+     * Writes one CSV line per first player and opening pit that was played.
+     *
+     * @param writer where to write the summary
+     * @throws IOException if the summary can't be written
+     */
+    public void writeSummary(Writer writer) throws IOException {
+      writer.write(
+          "first,opening,games,winRateA,winRateB,tieRate,avgPlies,avgCaptures,avgExtraTurns\n");
+      for (int i = 0; i < NUM_OPENINGS; i++) {
+        if (games[i] == 0) {
+          continue;
+        }
+        double n = games[i];
+        writer.write(
+            String.format(
+                "%s,%d,%d,%.4f,%.4f,%.4f,%.2f,%.2f,%.2f%n",
+                i < MancalaModel.TOTAL_NUM_PITS ? "A" : "B",
+                i % MancalaModel.TOTAL_NUM_PITS,
+                games[i],
+                winsA[i] / n,
+                winsB[i] / n,
+                ties[i] / n,
+                plies[i] / n,
+                captures[i] / n,
+                extraTurns[i] / n));
+      }
+      writer.flush();
+    }
+  }
+
+  /**
+   * Runs a simulation from the command line.
+   *
+   * @param args the options described in the class comment
+   * @throws IOException if an output file can't be written
+   */
+  public static void main(String[] args) throws IOException {
+    long games = 1_000_000;
+    int numStones = 4;
+    String policyA = "random";
+    String policyB = "random";
+    int threads = Runtime.getRuntime().availableProcessors();
+    long seed = 1;
+    String csvFile = null;
+    String summaryFile = null;
+    String recordFile = null;
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      switch (args[i]) {
+        case "--games":
+          games = Long.parseLong(args[i + 1]);
+          break;
+        case "--stones":
+          numStones = Integer.parseInt(args[i + 1]);
+          break;
+        case "--a":
+          policyA = args[i + 1];
+          break;
+        case "--b":
+          policyB = args[i + 1];
+          break;
+        case "--threads":
+          threads = Integer.parseInt(args[i + 1]);
+          break;
+        case "--seed":
+          seed = Long.parseLong(args[i + 1]);
+          break;
+        case "--csv":
+          csvFile = args[i + 1];
+          break;
+        case "--summary":
+          summaryFile = args[i + 1];
+          break;
+        case "--record":
+          recordFile = args[i + 1];
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    Results results;
+    try (BufferedWriter gameWriter =
+            csvFile == null ? null : Files.newBufferedWriter(Paths.get(csvFile));
+        GameRecordWriter recordWriter =
+            recordFile == null ? null : new GameRecordWriter(Paths.get(recordFile))) {
+      SelfPlaySimulator simulator =
+          new SelfPlaySimulator(games, numStones, policyA, policyB, threads, seed, gameWriter);
+      simulator.setRecordWriter(recordWriter);
+      results = simulator.run();
+    }
+
+    if (summaryFile == null) {
+      results.writeSummary(new PrintWriter(System.out));
+    } else {
+      try (BufferedWriter summaryWriter = Files.newBufferedWriter(Paths.get(summaryFile))) {
+        results.writeSummary(summaryWriter);
+      }
+    }
+    System.out.printf(
+        "%d games in %.2f s, %.0f games/s%n",
+        results.getGames(), results.nanos / 1e9, results.getGamesPerSecond());
+  }
+}
@@ -0,0 +1,227 @@
+package ram.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test for a {@link SessionServer}. It first opens a number of games that then sit idle, then
+ * has several client threads play random games as fast as the server answers. Each client thread
+ * keeps a batch of games going on its own connection and sends one move for each of them before
+ * reading the replies, then reports moves per second and the mean time a batch took.
+ *
+ * <p>Usage: {@code java ram.engine.SessionLoadTest [port] [idle sessions] [clients] [games per
+ * client] [seconds]}. With no running server on the port, one is started in the same process.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class SessionLoadTest {
+  private static final int BATCH_SIZE = 1000;
+
+  private final int port;
+  private final LongAdder moves = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder batchNanos = new LongAdder();
+  private final LongAdder games = new LongAdder();
+  private volatile boolean running = true;
+
+  private SessionLoadTest(int port) {
+    this.port = port;
+  }
+
+  /**
+   * Opens games that are never played.
+   *
+   * @param count the number of games
+   * @throws IOException if the server can't be reached or refuses a game
+   */
+  private void openIdleSessions(int count) throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+      BufferedReader in =
+          new BufferedReader(
+              new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+      for (int sent = 0; sent < count; sent += BATCH_SIZE) {
+        int batch = Math.min(BATCH_SIZE, count - sent);
+        for (int i = 0; i < batch; i++) {
+          out.write("NEW\n");
+        }
+        out.flush();
+        for (int i = 0; i < batch; i++) {
+          String reply = in.readLine();
+          if (reply == null || !reply.startsWith("OK")) {
+            throw new IOException("Server refused a game: " + reply);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Plays random games on one connection until the test ends.
+   *
+   * @param numGames the number of games kept going at once
+   * @param seed the seed for the moves
+   */
+  private void play(int numGames, long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      socket.setTcpNoDelay(true);
+      Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+      BufferedReader in =
+          new BufferedReader(
+              new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+
+      // The last reply for every game, by session ID
+      Map<Long, String[]> states = new HashMap<>();
+      for (int i = 0; i < numGames; i++) {
+        out.write("NEW\n");
+      }
+      out.flush();
+      for (int i = 0; i < numGames; i++) {
+        String[] reply = in.readLine().split(" ");
+        states.put(Long.parseLong(reply[1]), reply);
+      }
+
+      while (running) {
+        long start = System.nanoTime();
+        for (String[] state : states.values()) {
+          out.write(nextCommand(state, random));
+        }
+        out.flush();
+        Map<Long, String[]> next = new HashMap<>(2 * numGames);
+        int ended = 0;
+        for (int i = 0; i < numGames; i++) {
+          String line = in.readLine();
+          String[] reply = line.split(" ");
+          if (reply[0].equals("ERR")) {
+            throw new IllegalStateException("Server rejected a legal move: " + line);
+          }
+          if (reply[2].equals("END")) {
+            ended++;
+          } else {
+            next.put(Long.parseLong(reply[1]), reply);
+          }
+        }
+        moves.add(numGames - ended);
+
+        // Start new games in place of the ones that ended
+        if (ended > 0) {
+          for (int i = 0; i < ended; i++) {
+            out.write("NEW\n");
+          }
+          out.flush();
+          for (int i = 0; i < ended; i++) {
+            String[] reply = in.readLine().split(" ");
+            next.put(Long.parseLong(reply[1]), reply);
+          }
+          games.add(ended);
+        }
+        states = next;
+        batches.increment();
+        batchNanos.add(System.nanoTime() - start);
+      }
+    } catch (IOException ex) {
+      throw new IllegalStateException("Lost the connection to the server", ex);
+    }
+  }
+
+  /**
+   * Picks a random legal move for a game, or ends it if it is over.
+   *
+   * @param state the last reply for the game
+   * @param random the source of moves
+   * @return the command to send
+   */
+  private static String nextCommand(String[] state, SplittableRandom random) {
+    String id = state[1];
+    if (state[2].equals("OVER")) {
+      return "END " + id + "\n";
+    }
+    boolean isPlayerA = state[2].equals("A");
+    int first = isPlayerA ? 0 : MancalaModel.A_MANCALA_POS + 1;
+    int pit;
+    do {
+      pit = random.nextInt(MancalaModel.NUM_PITS_PER_PLAYER);
+    } while (state[3 + first + pit].equals("0"));
+    return "MOVE " + id + " " + state[2] + " " + pit + "\n";
+  }
+
+  /**
+   * Runs the load test.
+   *
+   * @param args the options described in the class comment
+   * @throws Exception if the server can't be started or reached
+   */
+  public static void main(String[] args) throws Exception {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : SessionServer.DEFAULT_PORT;
+    int idleSessions = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+    int clients = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+    int gamesPerClient = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+    int seconds = args.length > 4 ? Integer.parseInt(args[4]) : 10;
+
+    SessionServer server = null;
+    try (Socket probe = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      System.out.println("Using the server on " + probe.getRemoteSocketAddress());
+    } catch (IOException ex) {
+      server =
+          new SessionServer(
+              port,
+              idleSessions + clients * gamesPerClient,
+              SessionServer.DEFAULT_IDLE_TIMEOUT_SECONDS,
+              Runtime.getRuntime().availableProcessors());
+      Thread serverThread = new Thread(server, "session-server");
+      serverThread.setDaemon(true);
+      serverThread.start();
+      System.out.println("Started a server on port " + port);
+    }
+
+    SessionLoadTest test = new SessionLoadTest(port);
+    long start = System.nanoTime();
+    test.openIdleSessions(idleSessions);
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    System.out.printf(
+        "Opened %d idle sessions in %d ms, heap in use %d MB%n",
+        idleSessions,
+        (System.nanoTime() - start) / 1_000_000,
+        (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+
+    Thread[] threads = new Thread[clients];
+    for (int i = 0; i < clients; i++) {
+      long seed = i;
+      threads[i] = new Thread(() -> test.play(gamesPerClient, seed), "client-" + i);
+      threads[i].start();
+    }
+    Thread.sleep(seconds * 1000L);
+    test.running = false;
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    long totalMoves = test.moves.sum();
+    System.out.printf(
+        "%d clients played %d moves and finished %d games in %d s: %.0f moves/s, "
+            + "%.2f ms per batch of %d moves%n",
+        clients,
+        totalMoves,
+        test.games.sum(),
+        seconds,
+        totalMoves / (double) seconds,
+        test.batchNanos.sum() / 1e6 / test.batches.sum(),
+        gamesPerClient);
+    if (server != null) {
+      System.out.println("Server holds " + server.getNumSessions() + " sessions");
+      server.close();
+    }
+  }
+}
@@ -0,0 +1,325 @@
+package ram.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many games at once for clients on a local TCP socket, with no views. Each game is a {@link
+ * GameSession} actor keyed by its ID. One thread handles every connection through a {@link
+ * Selector}, and the sessions' commands run on a small shared pool, so neither idle connections nor
+ * idle sessions hold a thread. Sessions that see no command for a while are dropped, and the number
+ * of sessions is capped, which bounds the memory used. The totals of every game hosted are
+ * published over JMX by {@link GameMetrics}.
+ *
+ * <p>The protocol is one ASCII command per line, each answered by one line:
+ *
+ * <ul>
+ *   <li>{@code NEW [stones] [A|B]} starts a game, by default with 4 stones and a random first
+ *       player
+ *   <li>{@code MOVE id A|B pit} plays the given pit, 0-5 counted from the player's first pit
+ *   <li>{@code UNDO id} takes back the last move, within the model's undo rules
+ *   <li>{@code STATE id} asks for the game's state
+ *   <li>{@code END id} drops the game
+ * </ul>
+ *
+ * <p>Replies are {@code OK id A|B|OVER} followed by the stones in all 14 pits, or {@code ERR id
+ * message}. Replies about one session come back in order, but replies about different sessions may
+ * overtake each other, so clients match them by ID.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class SessionServer implements Runnable, Closeable {
+  public static final int DEFAULT_PORT = 4151;
+  public static final int DEFAULT_MAX_SESSIONS = 200_000;
+  public static final long DEFAULT_IDLE_TIMEOUT_SECONDS = 600;
+
+  private static final int MAX_LINE_LENGTH = 128;
+  private static final long EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final ServerSocketChannel serverChannel;
+  private final Selector selector;
+  private final ForkJoinPool executor;
+  private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+  private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+  private final AtomicLong nextId = new AtomicLong();
+  private final int maxSessions;
+  private final long idleTimeoutNanos;
+  private volatile boolean running = true;
+
+  /**
+   * Opens a server on the loopback address.
+   *
+   * @param port the port to listen on, or 0 for any free port
+   * @param maxSessions the most games hosted at once
+   * @param idleTimeoutSeconds how long a game may go without commands before it is dropped
+   * @param threads the number of threads running the sessions' commands
+   * @throws IOException if the port can't be opened
+   */
+  public SessionServer(int port, int maxSessions, long idleTimeoutSeconds, int threads)
+      throws IOException {
+    GameMetrics.get().install();
+    this.maxSessions = maxSessions;
+    idleTimeoutNanos = TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+    executor =
+        new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    selector = Selector.open();
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    serverChannel.configureBlocking(false);
+    serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+  }
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return the local port
+   */
+  public int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Returns the number of games hosted.
+   *
+   * @return the number of sessions
+   */
+  public int getNumSessions() {
+    return sessions.size();
+  }
+
+  /** Handles connections until the server is closed. */
+  @Override
+  public void run() {
+    long lastEviction = System.nanoTime();
+    try {
+      while (running) {
+        selector.select(TimeUnit.NANOSECONDS.toMillis(EVICTION_INTERVAL_NANOS));
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          try {
+            if (key.isAcceptable()) {
+              accept();
+            } else {
+              Connection connection = (Connection) key.attachment();
+              if (key.isReadable()) {
+                connection.read();
+              }
+              if (key.isValid() && key.isWritable()) {
+                connection.write();
+              }
+            }
+          } catch (IOException ex) {
+            key.cancel();
+            key.channel().close();
+          }
+        }
+
+        // Replies queued by sessions since the last select
+        for (Connection connection = pendingWrites.poll();
+            connection != null;
+            connection = pendingWrites.poll()) {
+          if (connection.key.isValid()) {
+            connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+          }
+        }
+
+        long now = System.nanoTime();
+        if (now - lastEviction >= EVICTION_INTERVAL_NANOS) {
+          lastEviction = now;
+          sessions
+              .values()
+              .removeIf(session -> now - session.getLastActiveNanos() > idleTimeoutNanos);
+        }
+      }
+    } catch (IOException ex) {
+      throw new IllegalStateException("Server failed", ex);
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel channel = serverChannel.accept();
+    if (channel == null) {
+      return;
+    }
+    channel.configureBlocking(false);
+    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+    key.attach(new Connection(channel, key));
+  }
+
+  /**
+   * Carries out one command line from a client.
+   *
+   * @param connection the client
+   * @param line the command, without its line break
+   */
+  private void handle(Connection connection, String line) {
+    String[] words = line.trim().split(" +");
+    try {
+      switch (words[0]) {
+        case "NEW":
+          if (sessions.size() >= maxSessions) {
+            connection.reply("ERR - too many sessions\n");
+            return;
+          }
+          int numStones = words.length > 1 ? Integer.parseInt(words[1]) : 4;
+          if (numStones < 1) {
+            connection.reply("ERR - can't play with " + numStones + " stones\n");
+            return;
+          }
+          boolean isPlayerAFirst =
+              words.length > 2 ? "A".equals(words[2]) : Math.random() < 0.5;
+          GameSession created =
+              new GameSession(nextId.incrementAndGet(), numStones, isPlayerAFirst, executor);
+          sessions.put(created.getId(), created);
+          created.send(() -> connection.reply(created.state()));
+          return;
+        case "MOVE":
+        case "UNDO":
+        case "STATE":
+        case "END":
+          break;
+        default:
+          connection.reply("ERR - unknown command " + words[0] + "\n");
+          return;
+      }
+
+      long id = Long.parseLong(words[1]);
+      GameSession session = sessions.get(id);
+      if (session == null) {
+        connection.reply("ERR " + id + " no such session\n");
+        return;
+      }
+      switch (words[0]) {
+        case "MOVE":
+          if (!"A".equals(words[2]) && !"B".equals(words[2])) {
+            connection.reply("ERR " + id + " no player " + words[2] + "\n");
+            return;
+          }
+          boolean isPlayerA = "A".equals(words[2]);
+          int pit = Integer.parseInt(words[3]);
+          session.send(() -> connection.reply(session.move(isPlayerA, pit)));
+          break;
+        case "UNDO":
+          session.send(() -> connection.reply(session.undo()));
+          break;
+        case "STATE":
+          session.send(() -> connection.reply(session.state()));
+          break;
+        default:
+          sessions.remove(id);
+          connection.reply("OK " + id + " END\n");
+          break;
+      }
+    } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+      connection.reply("ERR - bad command: " + line + "\n");
+    }
+  }
+
+  /** Stops the server and closes every connection. */
+  @Override
+  public void close() throws IOException {
+    running = false;
+    selector.wakeup();
+    executor.shutdown();
+    for (SelectionKey key : selector.keys()) {
+      key.channel().close();
+    }
+    selector.close();
+  }
+
+  /** A client connection, with its partly read command and the replies waiting to be sent. */
+  private class Connection {
+    final SocketChannel channel;
+    final SelectionKey key;
+    final ByteBuffer in = ByteBuffer.allocate(MAX_LINE_LENGTH);
+    final Queue<ByteBuffer> out = new ConcurrentLinkedQueue<>();
+
+    Connection(SocketChannel channel, SelectionKey key) {
+      this.channel = channel;
+      this.key = key;
+    }
+
+    /** Reads what the client sent and handles every complete line. */
+    void read() throws IOException {
+      if (channel.read(in) < 0) {
+        throw new IOException("Client closed the connection");
+      }
+      in.flip();
+      int start = 0;
+      for (int i = 0; i < in.limit(); i++) {
+        if (in.get(i) == '\n') {
+          handle(this, new String(in.array(), start, i - start, StandardCharsets.US_ASCII));
+          start = i + 1;
+        }
+      }
+      in.position(start);
+      in.compact();
+      if (!in.hasRemaining()) {
+        throw new IOException("Command too long");
+      }
+    }
+
+    /** Sends queued replies until the socket can't take more. */
+    void write() throws IOException {
+      for (ByteBuffer reply = out.peek(); reply != null; reply = out.peek()) {
+        channel.write(reply);
+        if (reply.hasRemaining()) {
+          return;
+        }
+        out.poll();
+      }
+      key.interestOps(SelectionKey.OP_READ);
+
+      // A reply may have been queued after the last peek
+      if (!out.isEmpty()) {
+        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+      }
+    }
+
+    /** Queues a reply from any thread. */
+    void reply(String reply) {
+      out.add(ByteBuffer.wrap(reply.getBytes(StandardCharsets.US_ASCII)));
+      pendingWrites.add(this);
+      selector.wakeup();
+    }
+  }
+
+  /**
+   * Runs a server until the process is stopped.
+   *
+   * @param args optionally the port, the most sessions, the idle timeout in seconds and the number
+   *     of threads
+   * @throws IOException if the port can't be opened
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+    int maxSessions = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_SESSIONS;
+    long idleTimeoutSeconds =
+        args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_IDLE_TIMEOUT_SECONDS;
+    int threads =
+        args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+    SessionServer server = new SessionServer(port, maxSessions, idleTimeoutSeconds, threads);
+    System.out.println("Listening on port " + server.getPort());
+    server.run();
+  }
+}
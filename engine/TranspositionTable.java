@@ -0,0 +1,141 @@
+package ram.engine;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size transposition table for the search engines. Entries live in one primitive long
+ * array, two longs per slot, so the table never allocates after it is created and its memory is
+ * bounded by the size chosen up front.
+ *
+ * <p>Each slot holds a packed entry with the score, search depth, bound type and best move, and the
+ * 64-bit position key XORed with that entry. The table can be shared by several search threads
+ * without locking: a slot torn by a concurrent store no longer XORs back to its key, so it simply
+ * reads as a miss.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class TranspositionTable {
+  /** The stored score is exact. */
+  public static final int EXACT = 1;
+  /** The stored score is a lower bound (the search failed high). */
+  public static final int LOWER_BOUND = 2;
+  /** The stored score is an upper bound (the search failed low). */
+  public static final int UPPER_BOUND = 3;
+
+  /** Returned by {@link #probe(long)} when the position is not in the table. */
+  public static final long MISS = 0;
+
+  private final long[] entries;
+  private final int mask;
+
+  /**
+   * Creates a table with {@code 2^sizeLog2} slots, using {@code 16 * 2^sizeLog2} bytes.
+   *
+   * @param sizeLog2 the base 2 logarithm of the number of slots
+   */
+  public TranspositionTable(int sizeLog2) {
+    entries = new long[2 << sizeLog2];
+    mask = (1 << sizeLog2) - 1;
+  }
+
+  /**
+   * Returns the key of a packed position.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return a well-mixed 64-bit key
+   */
+  public static long hash(long lo, long hi) {
+    return mix(lo ^ mix(hi));
+  }
+
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * Looks up a position.
+   *
+   * @param key the position key
+   * @return the packed entry, or {@link #MISS}
+   */
+  public long probe(long key) {
+    int slot = ((int) key & mask) << 1;
+    long entry = entries[slot + 1];
+    return (entries[slot] ^ entry) == key ? entry : MISS;
+  }
+
+  /**
+   * Stores a search result, replacing the slot unless it holds a deeper result for the same key.
+   *
+   * @param key the position key
+   * @param score the score from the side to move's view
+   * @param depth the remaining depth the score was searched to
+   * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+   * @param move the best move found, or -1
+   */
+  public void store(long key, int score, int depth, int bound, int move) {
+    int slot = ((int) key & mask) << 1;
+    long old = entries[slot + 1];
+    if ((entries[slot] ^ old) == key && depth(old) > depth) {
+      return;
+    }
+    long entry =
+        (score & 0xFFFFL)
+            | (long) (depth & 0xFF) << 16
+            | (long) bound << 24
+            | (long) (move + 1) << 26;
+    entries[slot] = key ^ entry;
+    entries[slot + 1] = entry;
+  }
+
+  /** Removes every entry. */
+  public void clear() {
+    Arrays.fill(entries, 0);
+  }
+
+  /**
+   * Returns the score of a packed entry.
+   *
+   * @param entry the entry returned by {@link #probe(long)}
+   * @return the stored score
+   */
+  public static int score(long entry) {
+    return (short) entry;
+  }
+
+  /**
+   * Returns the search depth of a packed entry.
+   *
+   * @param entry the entry returned by {@link #probe(long)}
+   * @return the stored depth
+   */
+  public static int depth(long entry) {
+    return (int) (entry >>> 16) & 0xFF;
+  }
+
+  /**
+   * Returns the bound type of a packed entry.
+   *
+   * @param entry the entry returned by {@link #probe(long)}
+   * @return {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+   */
+  public static int bound(long entry) {
+    return (int) (entry >>> 24) & 0x3;
+  }
+
+  /**
+   * Returns the best move of a packed entry.
+   *
+   * @param entry the entry returned by {@link #probe(long)}
+   * @return the stored move, or -1 if there is none
+   */
+  public static int move(long entry) {
+    return ((int) (entry >>> 26) & 0xF) - 1;
+  }
+}
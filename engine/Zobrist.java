@@ -0,0 +1,90 @@
+package ram.engine;
+
+/**
+ * Zobrist keys for Mancala positions. Every pair of a pit and a number of stones has its own
+ * random 64-bit key, and so does player A being to move; the key of a position is the XOR of the
+ * keys of the stones in each of its pits and of the side to move. Changing one pit changes the key
+ * by two XORs, which is how {@link MancalaModel} keeps the key of its position up to date as it
+ * sows, captures and sweeps, and undoing the change restores the key exactly.
+ *
+ * <p>The keys are fixed, so a position has the same key in every run and keys can be stored in
+ * files. Each key is the SplitMix64 hash of its pit and number of stones, which is as good as a
+ * random table; the keys of the first pits and stone counts are kept in a table so the model
+ * doesn't hash in its inner loop.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public final class Zobrist {
+  /** Included in the key of every position with player A to move. */
+  public static final long PLAYER_A_TURN = mix(Long.MIN_VALUE);
+
+  // Enough for every pit of the standard board holding all 48 stones of a 4-stone game and more
+  private static final int TABLE_PITS = 16;
+  private static final int TABLE_STONES = 128;
+  private static final long[] TABLE = new long[TABLE_PITS * TABLE_STONES];
+
+  static {
+    for (int pit = 0; pit < TABLE_PITS; pit++) {
+      for (int stones = 0; stones < TABLE_STONES; stones++) {
+        TABLE[pit * TABLE_STONES + stones] = compute(pit, stones);
+      }
+    }
+  }
+
+  private Zobrist() {}
+
+  /**
+   * Returns the key of a number of stones in a pit.
+   *
+   * @param pit the index of the pit
+   * @param stones the number of stones in it, which may be negative while a move is being undone
+   * @return the key
+   */
+  public static long key(int pit, int stones) {
+    return pit < TABLE_PITS && stones >= 0 && stones < TABLE_STONES
+        ? TABLE[pit * TABLE_STONES + stones]
+        : compute(pit, stones);
+  }
+
+  /**
+   * Returns the key of a whole position.
+   *
+   * @param board the number of stones in each pit, laid out like {@link MancalaModel}'s
+   * @param isPlayerATurn whether it is player A's turn
+   * @return the key
+   */
+  public static long key(int[] board, boolean isPlayerATurn) {
+    long key = isPlayerATurn ? PLAYER_A_TURN : 0;
+    for (int i = 0; i < board.length; i++) {
+      key ^= key(i, board[i]);
+    }
+    return key;
+  }
+
+  /**
+   * Returns the key of a packed position, the same as that of its board in the model.
+   *
+   * @param lo pits 0-6
+   * @param hi pits 7-13 and the turn bit
+   * @return the key
+   */
+  public static long key(long lo, long hi) {
+    long key = GameState.isPlayerATurn(hi) ? PLAYER_A_TURN : 0;
+    for (int i = 0; i < MancalaModel.TOTAL_NUM_PITS; i++) {
+      key ^= key(i, GameState.stones(lo, hi, i));
+    }
+    return key;
+  }
+
+  private static long compute(int pit, int stones) {
+    return mix(((long) pit << 32) | (stones & 0xFFFF_FFFFL));
+  }
+
+  /** The SplitMix64 output function, applied to one more than the index so no key is 0. */
+  private static long mix(long index) {
+    long z = (index + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,154 @@
+package ram.engine;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Checks the {@link Zobrist} keys kept by {@link MancalaModel}. It plays random games with 3 and 4
+ * stones, taking back some moves, and after every move, undo and redo compares the model's key
+ * with the key of its board worked out from scratch. At the end of each game it steps back to the
+ * start and forward again. Every distinct position reached is then checked for another with the
+ * same key, and for another with the same low 32 bits of the key, which is what a table indexed
+ * by the key sees; the second count should be close to the number expected of random keys.
+ *
+ * <p>Usage: {@code java ram.engine.ZobristCollisionTest [games] [seed]}.
+ *
+ * @author Aniqua Azad, Malaak Khalil, Ryan Tran
+ */
+public class ZobristCollisionTest {
+  private final Map<Long, GameState> positions = new HashMap<>();
+  private long checks;
+  private long mismatches;
+  private long collisions;
+
+  /**
+   * Compares the model's key with a fresh one and remembers the position.
+   *
+   * @param model the model
+   */
+  private void check(MancalaModel model) {
+    MancalaModel.Snapshot snapshot = model.getSnapshot();
+    int[] board = new int[model.getTotalNumPits()];
+    for (int i = 0; i < board.length; i++) {
+      board[i] = snapshot.getMarbles(i);
+    }
+    long key = snapshot.getKey();
+    GameState state = snapshot.getGameState();
+    checks++;
+    if (key != Zobrist.key(board, snapshot.isPlayerATurn()) || key != state.getKey()) {
+      mismatches++;
+    }
+    GameState other = positions.putIfAbsent(key, state);
+    if (other != null && !other.equals(state)) {
+      collisions++;
+    }
+  }
+
+  /**
+   * Plays one random game.
+   *
+   * @param model the model to play on
+   * @param random the source of the moves
+   */
+  private void play(MancalaModel model, SplittableRandom random) {
+    model.setUpMancalaBoard(random.nextBoolean() ? 3 : 4, random.nextBoolean());
+    long startKey = model.getKey();
+    check(model);
+    while (!model.gameOver()) {
+      int first = model.isPlayerATurn() ? 0 : model.getAMancalaPos() + 1;
+      int pit = first + random.nextInt(model.getNumPitsPerPlayer());
+      if (model.getMarbles(pit) == 0) {
+        continue;
+      }
+      long before = model.getKey();
+      model.move(pit);
+      check(model);
+      if (random.nextInt(8) == 0) {
+        int ply = model.getPly();
+        model.undoMove();
+        if (model.getPly() < ply) {
+          check(model);
+          if (model.getKey() != before) {
+            mismatches++;
+          }
+          model.redoMove();
+          check(model);
+        }
+      }
+    }
+    long endKey = model.getKey();
+    int end = model.getPly();
+    model.goToPly(0);
+    model.goToPly(end);
+    checks += 2;
+    if (model.getKey() != endKey) {
+      mismatches++;
+    }
+    model.goToPly(0);
+    if (model.getKey() != startKey) {
+      mismatches++;
+    }
+  }
+
+  /**
+   * Counts the pairs of distinct positions whose keys share their low 32 bits.
+   *
+   * @return the number of pairs
+   */
+  private long countIndexCollisions() {
+    int[] low = new int[positions.size()];
+    int n = 0;
+    for (long key : positions.keySet()) {
+      low[n++] = (int) key;
+    }
+    Arrays.sort(low);
+    long pairs = 0;
+    int run = 1;
+    for (int i = 1; i <= n; i++) {
+      if (i < n && low[i] == low[i - 1]) {
+        run++;
+      } else {
+        pairs += (long) run * (run - 1) / 2;
+        run = 1;
+      }
+    }
+    return pairs;
+  }
+
+  /**
+   * Runs the check.
+   *
+   * @param args the options described in the class comment
+   */
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+    ZobristCollisionTest test = new ZobristCollisionTest();
+    SplittableRandom random = new SplittableRandom(seed);
+    MancalaModel model = new MancalaModel(MancalaModel.NUM_PITS_PER_PLAYER, false);
+    long start = System.nanoTime();
+    for (int i = 0; i < games; i++) {
+      test.play(model, random);
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    double n = test.positions.size();
+    System.out.printf(
+        "%d games, %d keys checked in %.2f s, %d wrong%n",
+        games, test.checks, seconds, test.mismatches);
+    System.out.printf(
+        "%d distinct positions: %d share a 64-bit key (%.2g expected), "
+            + "%d share the low 32 bits (%.1f expected)%n",
+        test.positions.size(),
+        test.collisions,
+        n * (n - 1) / 2 / Math.pow(2, 64),
+        test.countIndexCollisions(),
+        n * (n - 1) / 2 / Math.pow(2, 32));
+    if (test.mismatches > 0 || test.collisions > 0) {
+      System.exit(1);
+    }
+  }
+}